@@ -0,0 +1,300 @@
+// Dormand-Prince 5(4) integrator with error control. The input is held constant over each sample
+// (like CompiledSimulator), so runs of equal input samples are integrated with large internal
+// steps and the outputs on the uniform grid are filled in by the method's dense output.
+public class AdaptiveSimulator implements Simulator {
+    // Butcher tableau (the nodes are not needed: the input is constant within a step)
+    private static final double A21 = 1.0 / 5;
+    private static final double A31 = 3.0 / 40, A32 = 9.0 / 40;
+    private static final double A41 = 44.0 / 45, A42 = -56.0 / 15, A43 = 32.0 / 9;
+    private static final double A51 = 19372.0 / 6561, A52 = -25360.0 / 2187, A53 = 64448.0 / 6561, A54 = -212.0 / 729;
+    private static final double A61 = 9017.0 / 3168, A62 = -355.0 / 33, A63 = 46732.0 / 5247, A64 = 49.0 / 176, A65 = -5103.0 / 18656;
+    private static final double A71 = 35.0 / 384, A73 = 500.0 / 1113, A74 = 125.0 / 192, A75 = -2187.0 / 6784, A76 = 11.0 / 84;
+    // Difference between the 5th and 4th order weights
+    private static final double E1 = 71.0 / 57600, E3 = -71.0 / 16695, E4 = 71.0 / 1920, E5 = -17253.0 / 339200, E6 = 22.0 / 525, E7 = -1.0 / 40;
+    // Dense output
+    private static final double D1 = -12715105075.0 / 11282082432.0, D3 = 87487479700.0 / 32700410799.0, D4 = -10690763975.0 / 1880347072.0,
+            D5 = 701980252875.0 / 199316789632.0, D6 = -1453857185.0 / 822651844.0, D7 = 69997945.0 / 29380423.0;
+    // Step size controller, the DOPRI5 defaults (Hairer, Norsett and Wanner)
+    private static final double SAFETY = 0.9;
+    private static final double BETA = 0.04, ALPHA = 0.2 - 0.75 * BETA; // PI exponents
+    private static final double MIN_FACTOR = 0.2, MAX_FACTOR = 10.0;
+    private static final double MIN_ERROR = 1e-4; // Floor on error norms fed to the controller
+
+    private final int n; // Order of the system
+    private final double dt; // [s]
+    private final double rtol, atol;
+
+    // Companion-form realization, see CompiledSimulator
+    private final double[] a;
+    private final double b;
+    private final double[] c;
+    private final double d;
+
+    private final double[] x, x1, tmp, dense;
+    private final double[] k1, k2, k3, k4, k5, k6, k7;
+    private final double[] r2, r3, r4, r5; // Dense output coefficients of the last step
+    private double h; // Step size carried between runs
+    private double previousError = MIN_ERROR; // Error norm of the last accepted step, for the PI controller
+
+    // Statistics
+    private long accepted;
+    private long rejected;
+    private long evaluations;
+    private double maxError; // Largest accepted scaled error norm
+
+    public AdaptiveSimulator(double[] num, double[] den, double dt, double rtol, double atol) {
+        int n = den.length - 1;
+        int m = num.length - 1;
+        if (n < 0 || den[0] == 0) throw new IllegalArgumentException("Leading denominator coefficient must be nonzero");
+        if (m > n) throw new IllegalArgumentException("Transfer function must be proper (deg num <= deg den)");
+
+        double[] paddedNum = new double[n + 1];
+        System.arraycopy(num, 0, paddedNum, n - m, num.length);
+
+        this.n = n;
+        this.dt = dt;
+        this.rtol = rtol;
+        this.atol = atol;
+        this.d = paddedNum[0] / den[0];
+        this.b = 1.0 / den[0];
+        this.a = new double[n];
+        this.c = new double[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = -den[n - i] / den[0];
+            c[i] = paddedNum[n - i] - d * den[n - i];
+        }
+
+        this.x = new double[n];
+        this.x1 = new double[n];
+        this.tmp = new double[n];
+        this.dense = new double[n];
+        this.k1 = new double[n];
+        this.k2 = new double[n];
+        this.k3 = new double[n];
+        this.k4 = new double[n];
+        this.k5 = new double[n];
+        this.k6 = new double[n];
+        this.k7 = new double[n];
+        this.r2 = new double[n];
+        this.r3 = new double[n];
+        this.r4 = new double[n];
+        this.r5 = new double[n];
+        this.h = dt;
+    }
+
+    public AdaptiveSimulator(TransferFunction tf, double dt, double rtol, double atol) {
+        this(tf.getNum(), tf.getDen(), dt, rtol, atol);
+    }
+
+    // Shares the realization of proto, with its own state, work arrays and statistics
+    private AdaptiveSimulator(AdaptiveSimulator proto) {
+        this.n = proto.n;
+        this.dt = proto.dt;
+        this.rtol = proto.rtol;
+        this.atol = proto.atol;
+        this.a = proto.a;
+        this.b = proto.b;
+        this.c = proto.c;
+        this.d = proto.d;
+        this.x = new double[n];
+        this.x1 = new double[n];
+        this.tmp = new double[n];
+        this.dense = new double[n];
+        this.k1 = new double[n];
+        this.k2 = new double[n];
+        this.k3 = new double[n];
+        this.k4 = new double[n];
+        this.k5 = new double[n];
+        this.k6 = new double[n];
+        this.k7 = new double[n];
+        this.r2 = new double[n];
+        this.r3 = new double[n];
+        this.r4 = new double[n];
+        this.r5 = new double[n];
+        this.h = dt;
+    }
+
+    @Override
+    public AdaptiveSimulator fresh() { return new AdaptiveSimulator(this); }
+
+    public long getAcceptedSteps() { return this.accepted; }
+
+    public long getRejectedSteps() { return this.rejected; }
+
+    public long getEvaluations() { return this.evaluations; }
+
+    public double getMaxErrorEstimate() { return this.maxError; }
+
+    public String getStatistics() {
+        return accepted + " accepted, " + rejected + " rejected, " + evaluations + " evaluations, max error estimate " + maxError;
+    }
+
+    @Override
+    public int order() { return this.n; }
+
+    @Override
+    public double dt() { return this.dt; }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < n; i++) x[i] = 0.0;
+        h = dt;
+        previousError = MIN_ERROR;
+        accepted = 0;
+        rejected = 0;
+        evaluations = 0;
+        maxError = 0.0;
+    }
+
+    @Override
+    public void getState(double[] dst) { System.arraycopy(x, 0, dst, 0, n); }
+
+    @Override
+    public void setState(double[] src) { System.arraycopy(src, 0, x, 0, n); }
+
+    // The step size carried into the next run and the controller's previous error
+    @Override
+    public double[] getHistory() { return new double[] {h, previousError}; }
+
+    @Override
+    public void setHistory(double[] src) {
+        h = src[0];
+        previousError = src[1];
+    }
+
+    @Override
+    public double peek(double u) { return output(x, u); }
+
+    @Override
+    public double step(double u) {
+        double y = output(x, u);
+        integrate(u, 1, null, 0);
+        return y;
+    }
+
+    @Override
+    public void process(double[] input, int inOff, double[] output, int outOff, int len) {
+        int i = 0;
+        while (i < len) {
+            double u = input[inOff + i];
+            int run = 1;
+            while (i + run < len && input[inOff + i + run] == u) run++;
+            output[outOff + i] = output(x, u);
+            integrate(u, run, output, outOff + i);
+            i += run;
+        }
+    }
+
+    private double output(double[] xs, double u) {
+        double y = 0.0;
+        for (int j = 0; j < n; j++) {
+            y += c[j] * xs[j];
+        }
+        return y + d * u;
+    }
+
+    // Advance x over run samples of constant input, writing the outputs at samples 1..run-1
+    private void integrate(double u, int run, double[] output, int outOff) {
+        if (n == 0) {
+            if (output != null) for (int k = 1; k < run; k++) output[outOff + k] = d * u;
+            return;
+        }
+        double end = run * dt;
+        double t = 0.0;
+        int next = 1; // Next grid sample to emit
+        derivatives(x, u, k1);
+        boolean retry = false; // Last attempt was rejected
+
+        while (t < end) {
+            boolean last = t + h >= end * (1 - 1e-12);
+            double step = last ? end - t : h;
+            double err = attempt(u, step);
+
+            if (err > 1.0) {
+                rejected++;
+                retry = true;
+                h = step * Math.max(MIN_FACTOR, SAFETY * Math.pow(err, -0.2));
+                continue;
+            }
+            accepted++;
+            if (err > maxError) maxError = err;
+
+            // Dense output for the grid samples inside (t, t + step]
+            if (output != null) {
+                prepareDense(step);
+                double tEnd = last ? end : t + step;
+                while (next < run && next * dt <= tEnd) {
+                    double theta = (next * dt - t) / step;
+                    for (int j = 0; j < n; j++) {
+                        double s = 1 - theta;
+                        dense[j] = x[j] + theta * (r2[j] + s * (r3[j] + theta * (r4[j] + s * r5[j])));
+                    }
+                    output[outOff + next] = output(dense, u);
+                    next++;
+                }
+            }
+
+            System.arraycopy(x1, 0, x, 0, n);
+            System.arraycopy(k7, 0, k1, 0, n); // First same as last
+            t = last ? end : t + step;
+
+            // PI control: the previous error damps the oscillation between accepted and rejected
+            // steps when the step size is limited by stability rather than accuracy (the long
+            // decaying tails), and no growth straight after a rejection
+            err = Math.max(err, MIN_ERROR);
+            double factor = SAFETY * Math.pow(err, -ALPHA) * Math.pow(previousError, BETA);
+            factor = Math.min(retry ? 1.0 : MAX_FACTOR, Math.max(MIN_FACTOR, factor));
+            previousError = err;
+            retry = false;
+            if (!last || factor < 1) h = step * factor;
+        }
+    }
+
+    // One trial step from x with k1 already evaluated. Leaves the result in x1 and returns the scaled error norm.
+    private double attempt(double u, double s) {
+        for (int j = 0; j < n; j++) tmp[j] = x[j] + s * A21 * k1[j];
+        derivatives(tmp, u, k2);
+        for (int j = 0; j < n; j++) tmp[j] = x[j] + s * (A31 * k1[j] + A32 * k2[j]);
+        derivatives(tmp, u, k3);
+        for (int j = 0; j < n; j++) tmp[j] = x[j] + s * (A41 * k1[j] + A42 * k2[j] + A43 * k3[j]);
+        derivatives(tmp, u, k4);
+        for (int j = 0; j < n; j++) tmp[j] = x[j] + s * (A51 * k1[j] + A52 * k2[j] + A53 * k3[j] + A54 * k4[j]);
+        derivatives(tmp, u, k5);
+        for (int j = 0; j < n; j++) tmp[j] = x[j] + s * (A61 * k1[j] + A62 * k2[j] + A63 * k3[j] + A64 * k4[j] + A65 * k5[j]);
+        derivatives(tmp, u, k6);
+        for (int j = 0; j < n; j++) x1[j] = x[j] + s * (A71 * k1[j] + A73 * k3[j] + A74 * k4[j] + A75 * k5[j] + A76 * k6[j]);
+        derivatives(x1, u, k7);
+
+        double sum = 0.0;
+        for (int j = 0; j < n; j++) {
+            double e = s * (E1 * k1[j] + E3 * k3[j] + E4 * k4[j] + E5 * k5[j] + E6 * k6[j] + E7 * k7[j]);
+            double scale = atol + rtol * Math.max(Math.abs(x[j]), Math.abs(x1[j]));
+            sum += (e / scale) * (e / scale);
+        }
+        return Math.sqrt(sum / n);
+    }
+
+    private void prepareDense(double s) {
+        for (int j = 0; j < n; j++) {
+            double diff = x1[j] - x[j];
+            double bspl = s * k1[j] - diff;
+            r2[j] = diff;
+            r3[j] = bspl;
+            r4[j] = diff - s * k7[j] - bspl;
+            r5[j] = s * (D1 * k1[j] + D3 * k3[j] + D4 * k4[j] + D5 * k5[j] + D6 * k6[j] + D7 * k7[j]);
+        }
+    }
+
+    private void derivatives(double[] xs, double u, double[] dx) {
+        evaluations++;
+        int last = n - 1;
+        for (int i = 0; i < last; i++) {
+            dx[i] = xs[i + 1];
+        }
+        double acc = 0.0;
+        for (int j = 0; j < n; j++) {
+            acc += a[j] * xs[j];
+        }
+        dx[last] = acc + b * u;
+    }
+}
@@ -0,0 +1,141 @@
+// Advances N transfer functions of the same order in lockstep with RK4. Coefficients and states are
+// stored structure-of-arrays: element j of system s lives at [j * N + s], so every update is a
+// contiguous loop over systems that the Vector API (or the JIT) can vectorize.
+public class BatchSimulator {
+    final int n; // Order of every system
+    final int count; // Number of systems
+    final double dt; // [s]
+
+    // Companion-form coefficients, see CompiledSimulator
+    final double[] a; // n * count
+    final double[] b; // count
+    final double[] c; // n * count
+    final double[] d; // count
+
+    // State and RK4 scratch, n * count each
+    final double[] x;
+    final double[] k1, k2, k3, k4, tmp;
+
+    private final Kernel kernel;
+
+    interface Kernel {
+        void step(double u, double[] y);
+    }
+
+    public BatchSimulator(TransferFunction[] systems, double dt) {
+        this(systems, dt, true);
+    }
+
+    public BatchSimulator(TransferFunction[] systems, double dt, boolean useVectorApi) {
+        this.count = systems.length;
+        this.n = count == 0 ? 0 : systems[0].getDen().length - 1;
+        this.dt = dt;
+        this.a = new double[n * count];
+        this.b = new double[count];
+        this.c = new double[n * count];
+        this.d = new double[count];
+
+        for (int s = 0; s < count; s++) {
+            double[] num = systems[s].getNum();
+            double[] den = systems[s].getDen();
+            if (den.length - 1 != n) throw new IllegalArgumentException("System " + s + " has order " + (den.length - 1) + ", expected " + n);
+            if (den[0] == 0) throw new IllegalArgumentException("Leading denominator coefficient must be nonzero");
+            int m = num.length - 1;
+            if (m > n) throw new IllegalArgumentException("Transfer function must be proper (deg num <= deg den)");
+
+            double[] paddedNum = new double[n + 1];
+            System.arraycopy(num, 0, paddedNum, n - m, num.length);
+            d[s] = paddedNum[0] / den[0];
+            b[s] = 1.0 / den[0];
+            for (int i = 0; i < n; i++) {
+                a[i * count + s] = -den[n - i] / den[0];
+                c[i * count + s] = paddedNum[n - i] - d[s] * den[n - i];
+            }
+        }
+
+        this.x = new double[n * count];
+        this.k1 = new double[n * count];
+        this.k2 = new double[n * count];
+        this.k3 = new double[n * count];
+        this.k4 = new double[n * count];
+        this.tmp = new double[n * count];
+
+        this.kernel = useVectorApi ? loadVectorKernel(this) : null;
+    }
+
+    // The Vector API is an incubator module; without --add-modules jdk.incubator.vector the scalar path runs
+    private static Kernel loadVectorKernel(BatchSimulator sim) {
+        try {
+            Class<?> cls = Class.forName("VectorBatchKernel");
+            return (Kernel) cls.getDeclaredConstructor(BatchSimulator.class).newInstance(sim);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    public int size() { return this.count; }
+
+    public int order() { return this.n; }
+
+    public double dt() { return this.dt; }
+
+    public boolean isVectorized() { return this.kernel != null; }
+
+    public void reset() {
+        for (int i = 0; i < x.length; i++) x[i] = 0.0;
+    }
+
+    // Emit the current output of every system into y and advance all of them by one dt
+    public void step(double u, double[] y) {
+        if (kernel != null) kernel.step(u, y);
+        else stepScalar(u, y);
+    }
+
+    public double[][] simulate(double[] input) {
+        double[][] output = new double[count][input.length];
+        double[] y = new double[count];
+        for (int i = 0; i < input.length; i++) {
+            step(input[i], y);
+            for (int s = 0; s < count; s++) output[s][i] = y[s];
+        }
+        return output;
+    }
+
+    void stepScalar(double u, double[] y) {
+        int N = count;
+        for (int s = 0; s < N; s++) y[s] = 0.0;
+        for (int j = 0; j < n; j++) {
+            int row = j * N;
+            for (int s = 0; s < N; s++) y[s] += c[row + s] * x[row + s];
+        }
+        for (int s = 0; s < N; s++) y[s] += d[s] * u;
+
+        if (n == 0) return;
+
+        double h = dt / 2;
+        derivatives(x, u, k1);
+        for (int i = 0; i < x.length; i++) tmp[i] = x[i] + k1[i] * h;
+        derivatives(tmp, u, k2);
+        for (int i = 0; i < x.length; i++) tmp[i] = x[i] + k2[i] * h;
+        derivatives(tmp, u, k3);
+        for (int i = 0; i < x.length; i++) tmp[i] = x[i] + k3[i] * dt;
+        derivatives(tmp, u, k4);
+
+        for (int i = 0; i < x.length; i++) {
+            x[i] += (k1[i] + 2 * k2[i] + 2 * k3[i] + k4[i]) * dt / 6;
+        }
+    }
+
+    private void derivatives(double[] xs, double u, double[] dx) {
+        int N = count;
+        int last = (n - 1) * N;
+        // Shifted identity rows: a single block copy
+        System.arraycopy(xs, N, dx, 0, last);
+        for (int s = 0; s < N; s++) dx[last + s] = 0.0;
+        for (int j = 0; j < n; j++) {
+            int row = j * N;
+            for (int s = 0; s < N; s++) dx[last + s] += a[row + s] * xs[row + s];
+        }
+        for (int s = 0; s < N; s++) dx[last + s] += b[s] * u;
+    }
+}
@@ -0,0 +1,141 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Compact binary results file and its reader. Layout, all little-endian:
+//   "TFRS" | int version | double dt | long sampleCount | int channelCount
+//   | channelCount x (int byteLength, UTF-8 name) | zero padding to a multiple of 8
+//   | sampleCount rows of channelCount doubles (interleaved by sample)
+// Written by BinaryResultsWriter; the 8-byte aligned data section can also be memory-mapped.
+public class BinaryResults {
+    static final byte[] MAGIC = {'T', 'F', 'R', 'S'};
+    static final int VERSION = 1;
+    static final int COUNT_OFFSET = 16; // Position of sampleCount, patched when the writer closes
+    static final int BUFFER_SIZE = 1 << 20;
+
+    private final double dt; // [s]
+    private final String[] names;
+    private final long sampleCount;
+    private final long dataOffset; // [bytes]
+    private final double[][] channels; // null when only the header was read
+
+    private BinaryResults(double dt, String[] names, long sampleCount, long dataOffset, double[][] channels) {
+        this.dt = dt;
+        this.names = names;
+        this.sampleCount = sampleCount;
+        this.dataOffset = dataOffset;
+        this.channels = channels;
+    }
+
+    static ByteBuffer encodeHeader(double dt, long sampleCount, String[] names) {
+        byte[][] encoded = new byte[names.length][];
+        int size = 4 + 4 + 8 + 8 + 4;
+        for (int i = 0; i < names.length; i++) {
+            encoded[i] = names[i].getBytes(StandardCharsets.UTF_8);
+            size += 4 + encoded[i].length;
+        }
+        size = (size + 7) & ~7;
+        ByteBuffer header = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC).putInt(VERSION).putDouble(dt).putLong(sampleCount).putInt(names.length);
+        for (byte[] name : encoded) header.putInt(name.length).put(name);
+        header.position(size);
+        header.flip();
+        return header;
+    }
+
+    public static BinaryResults readHeader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readHeader(channel);
+        }
+    }
+
+    static BinaryResults readHeader(FileChannel channel) throws IOException {
+        ByteBuffer fixed = readFully(channel, 0, 28);
+        byte[] magic = new byte[4];
+        fixed.get(magic);
+        for (int i = 0; i < 4; i++) {
+            if (magic[i] != MAGIC[i]) throw new IOException("Not a results file (bad magic)");
+        }
+        int version = fixed.getInt();
+        if (version != VERSION) throw new IOException("Unsupported results file version " + version);
+        double dt = fixed.getDouble();
+        long sampleCount = fixed.getLong();
+        int channelCount = fixed.getInt();
+        if (channelCount < 0) throw new IOException("Corrupt results file: " + channelCount + " channels");
+
+        String[] names = new String[channelCount];
+        long pos = 28;
+        for (int i = 0; i < channelCount; i++) {
+            int length = readFully(channel, pos, 4).getInt();
+            if (length < 0) throw new IOException("Corrupt results file: channel name length " + length);
+            ByteBuffer name = readFully(channel, pos + 4, length);
+            names[i] = new String(name.array(), 0, length, StandardCharsets.UTF_8);
+            pos += 4 + length;
+        }
+        return new BinaryResults(dt, names, sampleCount, (pos + 7) & ~7L, null);
+    }
+
+    // Header and all samples, split into one array per channel
+    public static BinaryResults read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            BinaryResults header = readHeader(channel);
+            int width = header.names.length;
+            if (header.sampleCount > Integer.MAX_VALUE) throw new IOException("Too many samples for in-memory arrays: " + header.sampleCount);
+            int n = (int) header.sampleCount;
+            double[][] data = new double[width][n];
+
+            // Whole doubles per read; a row may span reads, row and col carry over
+            ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE & ~7).order(ByteOrder.LITTLE_ENDIAN);
+            long pos = header.dataOffset;
+            long remaining = (long) n * width * 8;
+            int row = 0, col = 0;
+            while (remaining > 0) {
+                buf.clear();
+                if (remaining < buf.capacity()) buf.limit((int) remaining);
+                while (buf.hasRemaining()) {
+                    int read = channel.read(buf, pos + buf.position());
+                    if (read < 0) throw new EOFException("Results file truncated at sample " + row);
+                }
+                pos += buf.limit();
+                remaining -= buf.limit();
+                buf.flip();
+                while (buf.hasRemaining()) {
+                    data[col][row] = buf.getDouble();
+                    if (++col == width) {
+                        col = 0;
+                        row++;
+                    }
+                }
+            }
+            return new BinaryResults(header.dt, header.names, header.sampleCount, header.dataOffset, data);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long pos, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, pos + buf.position()) < 0) throw new EOFException("Results file header truncated");
+        }
+        buf.flip();
+        return buf;
+    }
+
+    public double getDt() { return this.dt; }
+    public String[] getNames() { return this.names; }
+    public long getSampleCount() { return this.sampleCount; }
+    public long getDataOffset() { return this.dataOffset; }
+    public double[][] getChannels() { return this.channels; }
+    public double[] getChannel(int index) { return this.channels[index]; }
+
+    public double[] getChannel(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) return channels[i];
+        }
+        throw new IllegalArgumentException("No channel named " + name);
+    }
+}
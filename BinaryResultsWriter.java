@@ -0,0 +1,78 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Streams samples into a BinaryResults file through a FileChannel and a large direct buffer. The
+// sample count is patched into the header on close, so the length need not be known up front.
+public class BinaryResultsWriter implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(BinaryResults.BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final int width; // Channels per sample
+    private long samples;
+
+    public BinaryResultsWriter(Path file, double dt, String... names) throws IOException {
+        if (names.length == 0) throw new IllegalArgumentException("At least one channel is required");
+        this.width = names.length;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = BinaryResults.encodeHeader(dt, 0, names);
+        while (header.hasRemaining()) channel.write(header);
+    }
+
+    public void writeSample(double... values) throws IOException {
+        if (values.length != width) throw new IllegalArgumentException("Expected " + width + " values, got " + values.length);
+        for (double v : values) {
+            if (!buf.hasRemaining()) drain();
+            buf.putDouble(v);
+        }
+        samples++;
+    }
+
+    // Column-major data, one array per channel, all the same length
+    public void writeColumns(double[]... columns) throws IOException {
+        if (columns.length != width) throw new IllegalArgumentException("Expected " + width + " columns, got " + columns.length);
+        int n = columns[0].length;
+        for (double[] column : columns) {
+            if (column.length != n) throw new IllegalArgumentException("Column lengths differ: " + column.length + " vs " + n);
+        }
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < width; c++) {
+                if (!buf.hasRemaining()) drain();
+                buf.putDouble(columns[c][r]);
+            }
+        }
+        samples += n;
+    }
+
+    // Samples already interleaved as in the file; length must be a multiple of the channel count
+    public void writeInterleaved(double[] data, int offset, int length) throws IOException {
+        if (length % width != 0) throw new IllegalArgumentException("Length " + length + " is not a multiple of " + width + " channels");
+        for (int i = 0; i < length; i++) {
+            if (!buf.hasRemaining()) drain();
+            buf.putDouble(data[offset + i]);
+        }
+        samples += length / width;
+    }
+
+    private void drain() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) channel.write(buf);
+        buf.clear();
+    }
+
+    public long getSampleCount() { return this.samples; }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+            ByteBuffer count = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, samples);
+            while (count.hasRemaining()) channel.write(count, BinaryResults.COUNT_OFFSET + count.position());
+        } finally {
+            channel.close();
+        }
+    }
+}
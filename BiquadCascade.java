@@ -0,0 +1,187 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Cascade of second-order IIR sections in transposed direct form II:
+//   H(z) = gain * prod (b0 + b1 z^-1 + b2 z^-2) / (1 + a1 z^-1 + a2 z^-2)
+public class BiquadCascade implements Simulator {
+    private final double dt; // [s]
+    private final double gain;
+    private final int sections;
+    private final double[] b0, b1, b2, a1, a2;
+    private final double[] s1, s2; // Section states
+
+    public BiquadCascade(double gain, double[] b0, double[] b1, double[] b2, double[] a1, double[] a2, double dt) {
+        this.dt = dt;
+        this.gain = gain;
+        this.sections = b0.length;
+        this.b0 = b0;
+        this.b1 = b1;
+        this.b2 = b2;
+        this.a1 = a1;
+        this.a2 = a2;
+        this.s1 = new double[sections];
+        this.s2 = new double[sections];
+    }
+
+    @Override
+    public BiquadCascade fresh() { return new BiquadCascade(gain, b0, b1, b2, a1, a2, dt); }
+
+    // Group discrete poles and zeros into sections. Zeros at infinity (pure delays) are
+    // passed as NaN in zeroRe. Both lists must have the same length.
+    public static BiquadCascade fromRoots(double gain, double[] zeroRe, double[] zeroIm,
+                                          double[] poleRe, double[] poleIm, double dt) {
+        int[][] poleGroups = group(poleRe, poleIm);
+        int[][] zeroGroups = group(zeroRe, zeroIm);
+        int count = poleGroups.length;
+
+        // Sections with poles nearest the unit circle get the closest zeros first
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) order[i] = i;
+        Arrays.sort(order, (p, q) -> Double.compare(
+                maxRadius(poleGroups[q], poleRe, poleIm), maxRadius(poleGroups[p], poleRe, poleIm)));
+
+        boolean[] used = new boolean[zeroGroups.length];
+        double[] b0 = new double[count], b1 = new double[count], b2 = new double[count];
+        double[] a1 = new double[count], a2 = new double[count];
+        for (int s = 0; s < count; s++) {
+            int[] pg = poleGroups[order[s]];
+            int best = -1;
+            double bestDist = Double.MAX_VALUE;
+            for (int z = 0; z < zeroGroups.length; z++) {
+                if (used[z] || zeroGroups[z].length != pg.length) continue;
+                double dist = distance(zeroGroups[z], zeroRe, zeroIm, pg[0], poleRe, poleIm);
+                if (dist < bestDist) {
+                    bestDist = dist;
+                    best = z;
+                }
+            }
+            used[best] = true;
+
+            double[] den = factor(pg, poleRe, poleIm);
+            double[] num = factor(zeroGroups[best], zeroRe, zeroIm);
+            b0[s] = num[0];
+            b1[s] = num[1];
+            b2[s] = num[2];
+            a1[s] = den[1];
+            a2[s] = den[2];
+        }
+        return new BiquadCascade(gain, b0, b1, b2, a1, a2, dt);
+    }
+
+    public int sections() { return this.sections; }
+
+    @Override
+    public int order() { return 2 * sections; }
+
+    @Override
+    public double dt() { return this.dt; }
+
+    @Override
+    public double peek(double u) {
+        double v = gain * u;
+        for (int k = 0; k < sections; k++) {
+            v = b0[k] * v + s1[k];
+        }
+        return v;
+    }
+
+    @Override
+    public double step(double u) {
+        double v = gain * u;
+        for (int k = 0; k < sections; k++) {
+            double y = b0[k] * v + s1[k];
+            s1[k] = b1[k] * v - a1[k] * y + s2[k];
+            s2[k] = b2[k] * v - a2[k] * y;
+            v = y;
+        }
+        return v;
+    }
+
+    @Override
+    public void reset() {
+        for (int k = 0; k < sections; k++) {
+            s1[k] = 0.0;
+            s2[k] = 0.0;
+        }
+    }
+
+    @Override
+    public void getState(double[] dst) {
+        System.arraycopy(s1, 0, dst, 0, sections);
+        System.arraycopy(s2, 0, dst, sections, sections);
+    }
+
+    @Override
+    public void setState(double[] src) {
+        System.arraycopy(src, 0, s1, 0, sections);
+        System.arraycopy(src, sections, s2, 0, sections);
+    }
+
+    // Conjugate pairs first (nearest conjugate within Polynomials.CONJUGATE_TOL, so clustered
+    // roots that are conjugate only to rounding still pair), then the remaining real (or infinite)
+    // roots two at a time
+    private static int[][] group(double[] re, double[] im) {
+        int n = re.length;
+        int[] mate = Polynomials.conjugates(re, im, Polynomials.CONJUGATE_TOL);
+        List<int[]> groups = new ArrayList<>();
+        List<Integer> singles = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (im[i] == 0 || Double.isNaN(re[i])) {
+                singles.add(i);
+            } else if (mate[i] < 0) {
+                throw new IllegalArgumentException("Complex root " + re[i] + (im[i] > 0 ? " + " : " - ") + Math.abs(im[i]) + "i without conjugate");
+            } else if (im[i] > 0) {
+                groups.add(new int[] {i, mate[i]});
+            }
+        }
+        // Finite real roots before infinite ones so delays pair together
+        singles.sort((p, q) -> Boolean.compare(Double.isNaN(re[p]), Double.isNaN(re[q])));
+        for (int i = 0; i + 1 < singles.size(); i += 2) {
+            groups.add(new int[] {singles.get(i), singles.get(i + 1)});
+        }
+        if (singles.size() % 2 == 1) groups.add(new int[] {singles.get(singles.size() - 1)});
+        return groups.toArray(new int[0][]);
+    }
+
+    // Coefficients of prod (1 - r z^-1), where an infinite root contributes z^-1
+    private static double[] factor(int[] g, double[] re, double[] im) {
+        double[] f = {1.0, 0.0, 0.0};
+        for (int idx : g) {
+            double[] next = new double[3];
+            if (Double.isNaN(re[idx])) {
+                next[1] = f[0];
+                next[2] = f[1];
+            } else {
+                next[0] = f[0];
+                next[1] = f[1] - re[idx] * f[0];
+                next[2] = f[2] - re[idx] * f[1];
+            }
+            f = next;
+        }
+        // A conjugate pair leaves only real coefficients: 1 - 2 Re(r) z^-1 + |r|^2 z^-2, with r
+        // averaged over the pair in case it is conjugate only to within the pairing tolerance
+        if (g.length == 2 && im[g[0]] != 0) {
+            double r = (re[g[0]] + re[g[1]]) / 2, i = (im[g[0]] - im[g[1]]) / 2;
+            f[0] = 1.0;
+            f[1] = -2 * r;
+            f[2] = r * r + i * i;
+        }
+        return f;
+    }
+
+    private static double maxRadius(int[] g, double[] re, double[] im) {
+        double max = 0.0;
+        for (int idx : g) max = Math.max(max, Math.hypot(re[idx], im[idx]));
+        return max;
+    }
+
+    private static double distance(int[] g, double[] re, double[] im, int pole, double[] poleRe, double[] poleIm) {
+        double min = Double.MAX_VALUE;
+        for (int idx : g) {
+            double d = Double.isNaN(re[idx]) ? 1e9 : Math.hypot(re[idx] - poleRe[pole], im[idx] - poleIm[pole]);
+            min = Math.min(min, d);
+        }
+        return min;
+    }
+}
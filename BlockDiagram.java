@@ -0,0 +1,358 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Graph of blocks, summing junctions and fan-out connections, simulated in fixed-size sample blocks.
+// Feedback loops are grouped into stages that step sample by sample; everything else processes a
+// whole block per call. Stages run as a software pipeline: at wave w the stage at level L works on
+// block w - L, so independent branches and consecutive stages execute concurrently on a fork-join
+// pool. Each node writes into a preallocated ring of block buffers deep enough that a slot is never
+// overwritten before every consumer has read it.
+public class BlockDiagram {
+    private enum Kind { INPUT, BLOCK, SUM, OUTPUT }
+
+    private static class Node {
+        final String name;
+        final Kind kind;
+        final Simulator sim; // BLOCK only
+        final boolean feedthrough; // Output depends on the current input
+        final List<Node> from = new ArrayList<>();
+        final List<Double> signs = new ArrayList<>();
+        final List<Node> to = new ArrayList<>();
+        int id;
+        double[][] ring; // [slot][sample]
+        Stage stage;
+
+        Node(String name, Kind kind, Simulator sim, boolean feedthrough) {
+            this.name = name;
+            this.kind = kind;
+            this.sim = sim;
+            this.feedthrough = feedthrough;
+        }
+
+        double input(int slot, int i) {
+            double u = 0.0;
+            for (int k = 0; k < from.size(); k++) u += signs.get(k) * from.get(k).ring[slot][i];
+            return u;
+        }
+    }
+
+    private static class Stage {
+        final List<Node> nodes = new ArrayList<>(); // Evaluation order within the stage
+        final List<Node> delayed = new ArrayList<>(); // Strictly proper blocks of a loop, advanced last
+        boolean loop;
+        int level;
+        long nanos;
+        String name;
+    }
+
+    private final double dt; // [s]
+    private final int blockSize;
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<Node> inputs = new ArrayList<>();
+    private final List<Node> outputs = new ArrayList<>();
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    private List<Stage> stages; // Built lazily, topologically ordered
+    private int depth; // Ring slots per node
+    private double[][] extIn, extOut;
+
+    public BlockDiagram(double dt, int blockSize) {
+        this.dt = dt;
+        this.blockSize = blockSize;
+    }
+
+    public void setPool(ForkJoinPool pool) { this.pool = pool; }
+
+    public int addInput(String name) {
+        Node node = add(new Node(name, Kind.INPUT, null, true));
+        inputs.add(node);
+        return node.id;
+    }
+
+    public int addBlock(String name, TransferFunction tf) {
+        return addBlock(name, tf.compile(dt), !tf.isStrictlyProper());
+    }
+
+    public int addBlock(String name, Simulator sim, boolean feedthrough) {
+        return add(new Node(name, Kind.BLOCK, sim, feedthrough)).id;
+    }
+
+    public int addSum(String name) {
+        return add(new Node(name, Kind.SUM, null, true)).id;
+    }
+
+    public int addOutput(String name, int from) {
+        Node node = add(new Node(name, Kind.OUTPUT, null, true));
+        outputs.add(node);
+        connect(from, node.id);
+        return node.id;
+    }
+
+    public void connect(int from, int to) {
+        connect(from, to, 1.0);
+    }
+
+    // Signed connection, e.g. -1 for the feedback path into a summing junction
+    public void connect(int from, int to, double sign) {
+        Node src = nodes.get(from);
+        Node dst = nodes.get(to);
+        if (dst.kind == Kind.INPUT) throw new IllegalArgumentException("Inputs cannot be driven: " + dst.name);
+        if (dst.kind != Kind.SUM && !dst.from.isEmpty()) throw new IllegalArgumentException(dst.name + " already has an input; add a summing junction");
+        dst.from.add(src);
+        dst.signs.add(sign);
+        src.to.add(dst);
+        stages = null;
+    }
+
+    private Node add(Node node) {
+        node.id = nodes.size();
+        nodes.add(node);
+        stages = null;
+        return node;
+    }
+
+    // Runs the whole diagram from zero state. inputs[k] feeds the k-th addInput node; the result
+    // holds one array per addOutput node.
+    public double[][] run(double[][] in) {
+        if (in.length != inputs.size()) throw new IllegalArgumentException("Expected " + inputs.size() + " input signals");
+        if (stages == null) schedule();
+        int len = in.length == 0 ? 0 : in[0].length;
+        extIn = in;
+        extOut = new double[outputs.size()][len];
+        for (Node node : nodes) if (node.sim != null) node.sim.reset();
+        for (Stage stage : stages) stage.nanos = 0;
+
+        int blocks = (len + blockSize - 1) / blockSize;
+        int levels = stages.isEmpty() ? 0 : stages.get(stages.size() - 1).level + 1;
+        List<StageTask> wave = new ArrayList<>();
+        for (int w = 0; w < blocks + levels - 1; w++) {
+            wave.clear();
+            for (Stage stage : stages) {
+                int b = w - stage.level;
+                if (b < 0 || b >= blocks) continue;
+                wave.add(new StageTask(stage, b, Math.min(blockSize, len - b * blockSize)));
+            }
+            if (wave.size() == 1) wave.get(0).compute();
+            else pool.invoke(new Wave(wave));
+        }
+        double[][] result = extOut;
+        extIn = null;
+        extOut = null;
+        return result;
+    }
+
+    // Cumulative wall time per stage from the last run [ns], for finding the bottleneck
+    public Map<String, Long> getTimings() {
+        if (stages == null) schedule();
+        Map<String, Long> timings = new LinkedHashMap<>();
+        for (Stage stage : stages) timings.put(stage.name, stage.nanos);
+        return timings;
+    }
+
+    public String getBottleneck() {
+        Stage worst = null;
+        if (stages == null) schedule();
+        for (Stage stage : stages) if (worst == null || stage.nanos > worst.nanos) worst = stage;
+        return worst == null ? null : worst.name;
+    }
+
+    private static class Wave extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<StageTask> tasks;
+
+        Wave(List<StageTask> tasks) { this.tasks = tasks; }
+
+        @Override
+        protected void compute() { invokeAll(tasks); }
+    }
+
+    private class StageTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Stage stage;
+        private final int block, len;
+
+        StageTask(Stage stage, int block, int len) {
+            this.stage = stage;
+            this.block = block;
+            this.len = len;
+        }
+
+        @Override
+        protected void compute() {
+            long start = System.nanoTime();
+            int slot = block % depth;
+            int offset = block * blockSize;
+            if (stage.loop) runLoop(stage, slot, len);
+            else runNode(stage.nodes.get(0), slot, offset, len);
+            stage.nanos += System.nanoTime() - start;
+        }
+    }
+
+    private void runNode(Node node, int slot, int offset, int len) {
+        double[] out = node.ring == null ? null : node.ring[slot];
+        switch (node.kind) {
+            case INPUT:
+                System.arraycopy(extIn[inputs.indexOf(node)], offset, out, 0, len);
+                break;
+            case OUTPUT:
+                double[] dst = extOut[outputs.indexOf(node)];
+                for (int i = 0; i < len; i++) dst[offset + i] = node.input(slot, i);
+                break;
+            case SUM:
+                Arrays.fill(out, 0, len, 0.0);
+                for (int k = 0; k < node.from.size(); k++) {
+                    double sign = node.signs.get(k);
+                    double[] src = node.from.get(k).ring[slot];
+                    for (int i = 0; i < len; i++) out[i] += sign * src[i];
+                }
+                break;
+            case BLOCK:
+                if (node.signs.get(0) == 1.0) {
+                    node.sim.process(node.from.get(0).ring[slot], 0, out, 0, len);
+                } else {
+                    for (int i = 0; i < len; i++) out[i] = node.sim.step(node.input(slot, i));
+                }
+                break;
+        }
+    }
+
+    // Sample-by-sample evaluation of a feedback loop: strictly proper blocks emit from their state,
+    // the feedthrough nodes are evaluated in order, then the strictly proper blocks advance.
+    private void runLoop(Stage stage, int slot, int len) {
+        for (int i = 0; i < len; i++) {
+            for (Node node : stage.delayed) node.ring[slot][i] = node.sim.peek(0.0);
+            for (Node node : stage.nodes) {
+                double u = node.input(slot, i);
+                node.ring[slot][i] = node.kind == Kind.BLOCK ? node.sim.step(u) : u;
+            }
+            for (Node node : stage.delayed) node.sim.step(node.input(slot, i));
+        }
+    }
+
+    private void schedule() {
+        for (Node node : nodes) {
+            if (node.kind != Kind.INPUT && node.from.isEmpty()) throw new IllegalStateException(node.name + " has no input");
+        }
+
+        // Strongly connected components become stages; Tarjan emits them in reverse topological order
+        List<List<Node>> components = new ArrayList<>();
+        int[] index = new int[nodes.size()];
+        int[] low = new int[nodes.size()];
+        boolean[] onStack = new boolean[nodes.size()];
+        Arrays.fill(index, -1);
+        Deque<Node> stack = new ArrayDeque<>();
+        int[] counter = {0};
+        for (Node node : nodes) {
+            if (index[node.id] < 0) strongConnect(node, index, low, onStack, stack, counter, components);
+        }
+
+        List<Stage> order = new ArrayList<>();
+        for (int k = components.size() - 1; k >= 0; k--) {
+            List<Node> comp = components.get(k);
+            Stage stage = new Stage();
+            boolean selfLoop = comp.size() == 1 && comp.get(0).from.contains(comp.get(0));
+            stage.loop = comp.size() > 1 || selfLoop;
+            if (stage.loop) orderLoop(comp, stage);
+            else stage.nodes.addAll(comp);
+            List<String> names = new ArrayList<>();
+            for (Node node : comp) {
+                node.stage = stage;
+                names.add(node.name);
+            }
+            stage.name = String.join("+", names);
+            order.add(stage);
+        }
+
+        // Level = longest path from a source stage
+        int maxLevel = 0;
+        for (Stage stage : order) {
+            stage.level = 0;
+            for (Node node : allNodes(stage)) {
+                for (Node src : node.from) {
+                    if (src.stage != stage) stage.level = Math.max(stage.level, src.stage.level + 1);
+                }
+            }
+            maxLevel = Math.max(maxLevel, stage.level);
+        }
+        order.sort((p, q) -> Integer.compare(p.level, q.level));
+
+        // A slot written for block b is read up to maxLevel waves later
+        depth = maxLevel + 1;
+        for (Node node : nodes) {
+            node.ring = node.kind == Kind.OUTPUT ? null : new double[depth][blockSize];
+        }
+        stages = order;
+    }
+
+    private static List<Node> allNodes(Stage stage) {
+        List<Node> all = new ArrayList<>(stage.delayed);
+        all.addAll(stage.nodes);
+        return all;
+    }
+
+    // Feedthrough nodes of a loop must form a DAG once strictly proper blocks are cut out
+    private static void orderLoop(List<Node> comp, Stage stage) {
+        List<Node> direct = new ArrayList<>();
+        for (Node node : comp) {
+            if (node.kind == Kind.BLOCK && !node.feedthrough) stage.delayed.add(node);
+            else direct.add(node);
+        }
+        Map<Node, Integer> pending = new LinkedHashMap<>();
+        for (Node node : direct) {
+            int count = 0;
+            for (Node src : node.from) if (direct.contains(src)) count++;
+            pending.put(node, count);
+        }
+        Deque<Node> ready = new ArrayDeque<>();
+        for (Map.Entry<Node, Integer> e : pending.entrySet()) if (e.getValue() == 0) ready.add(e.getKey());
+        while (!ready.isEmpty()) {
+            Node node = ready.poll();
+            stage.nodes.add(node);
+            for (Node dst : node.to) {
+                Integer count = pending.get(dst);
+                if (count == null) continue;
+                pending.put(dst, count - 1);
+                if (count - 1 == 0) ready.add(dst);
+            }
+        }
+        if (stage.nodes.size() != direct.size()) {
+            List<String> names = new ArrayList<>();
+            for (Node node : direct) if (!stage.nodes.contains(node)) names.add(node.name);
+            throw new IllegalStateException("Algebraic loop through " + String.join(", ", names));
+        }
+    }
+
+    private static void strongConnect(Node v, int[] index, int[] low, boolean[] onStack, Deque<Node> stack,
+                                      int[] counter, List<List<Node>> out) {
+        index[v.id] = low[v.id] = counter[0]++;
+        stack.push(v);
+        onStack[v.id] = true;
+        for (Node w : v.to) {
+            if (index[w.id] < 0) {
+                strongConnect(w, index, low, onStack, stack, counter, out);
+                low[v.id] = Math.min(low[v.id], low[w.id]);
+            } else if (onStack[w.id]) {
+                low[v.id] = Math.min(low[v.id], index[w.id]);
+            }
+        }
+        if (low[v.id] == index[v.id]) {
+            List<Node> comp = new ArrayList<>();
+            Node w;
+            do {
+                w = stack.pop();
+                onStack[w.id] = false;
+                comp.add(w);
+            } while (w != v);
+            out.add(comp);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+public class CompiledSimulator implements Simulator {
+    private final int n; // Order of the system
+    private final double dt; // [s]
+
+    // Companion-form realization. A is a shifted identity plus one dense last row,
+    // so only that row is stored: dx[n-1] = a . x + b * u
+    private final double[] a;
+    private final double b;
+    private final double[] c;
+    private final double d;
+
+    // State and preallocated RK4 scratch vectors
+    private final double[] x;
+    private final double[] k1;
+    private final double[] k2;
+    private final double[] k3;
+    private final double[] k4;
+    private final double[] tmp;
+
+    public CompiledSimulator(double[] num, double[] den, double dt) {
+        int n = den.length - 1;
+        int m = num.length - 1;
+        if (n < 0 || den[0] == 0) throw new IllegalArgumentException("Leading denominator coefficient must be nonzero");
+        if (m > n) throw new IllegalArgumentException("Transfer function must be proper (deg num <= deg den)");
+
+        // Pad a copy of the numerator, leaving the caller's array untouched
+        double[] paddedNum = new double[n + 1];
+        System.arraycopy(num, 0, paddedNum, n - m, num.length);
+
+        this.n = n;
+        this.dt = dt;
+        this.d = paddedNum[0] / den[0];
+        this.b = 1.0 / den[0];
+        this.a = new double[n];
+        this.c = new double[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = -den[n - i] / den[0];
+            c[i] = paddedNum[n - i] - d * den[n - i];
+        }
+
+        this.x = new double[n];
+        this.k1 = new double[n];
+        this.k2 = new double[n];
+        this.k3 = new double[n];
+        this.k4 = new double[n];
+        this.tmp = new double[n];
+    }
+
+    public CompiledSimulator(TransferFunction tf, double dt) {
+        this(tf.getNum(), tf.getDen(), dt);
+    }
+
+    // Shares the realization of proto, with its own zeroed state and scratch
+    private CompiledSimulator(CompiledSimulator proto) {
+        this.n = proto.n;
+        this.dt = proto.dt;
+        this.a = proto.a;
+        this.b = proto.b;
+        this.c = proto.c;
+        this.d = proto.d;
+        this.x = new double[n];
+        this.k1 = new double[n];
+        this.k2 = new double[n];
+        this.k3 = new double[n];
+        this.k4 = new double[n];
+        this.tmp = new double[n];
+    }
+
+    @Override
+    public CompiledSimulator fresh() { return new CompiledSimulator(this); }
+
+    @Override
+    public int order() { return this.n; }
+
+    @Override
+    public double dt() { return this.dt; }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < n; i++) x[i] = 0.0;
+    }
+
+    @Override
+    public void getState(double[] dst) { System.arraycopy(x, 0, dst, 0, n); }
+
+    @Override
+    public void setState(double[] src) { System.arraycopy(src, 0, x, 0, n); }
+
+    @Override
+    public double peek(double u) {
+        double y = 0.0;
+        for (int j = 0; j < n; j++) {
+            y += c[j] * x[j];
+        }
+        return y + d * u;
+    }
+
+    // Emit the output for the current sample and advance the state by one dt
+    @Override
+    public double step(double u) {
+        double y = peek(u);
+
+        if (n == 0) return y;
+
+        double h = dt / 2;
+        derivatives(x, u, k1);
+        for (int j = 0; j < n; j++) tmp[j] = x[j] + k1[j] * h;
+        derivatives(tmp, u, k2);
+        for (int j = 0; j < n; j++) tmp[j] = x[j] + k2[j] * h;
+        derivatives(tmp, u, k3);
+        for (int j = 0; j < n; j++) tmp[j] = x[j] + k3[j] * dt;
+        derivatives(tmp, u, k4);
+
+        for (int j = 0; j < n; j++) {
+            x[j] += (k1[j] + 2 * k2[j] + 2 * k3[j] + k4[j]) * dt / 6;
+        }
+        return y;
+    }
+
+    private void derivatives(double[] xs, double u, double[] dx) {
+        int last = n - 1;
+        for (int i = 0; i < last; i++) {
+            dx[i] = xs[i + 1];
+        }
+        double acc = 0.0;
+        for (int j = 0; j < n; j++) {
+            acc += a[j] * xs[j];
+        }
+        dx[last] = acc + b * u;
+    }
+}
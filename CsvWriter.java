@@ -0,0 +1,190 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Streaming CSV writer for simulation results. Doubles are formatted straight into a reused byte
+// buffer with integer arithmetic, so a row costs no String allocation and no String.format.
+public class CsvWriter implements Closeable {
+    static final int BUFFER_SIZE = 1 << 16;
+    static final int MAX_VALUE_LENGTH = 32; // Longest formatted double, with room to spare
+
+    private static final long[] POW10 = new long[19];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    private final OutputStream out;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int pos;
+    private int precision = 15; // Significant digits
+    private final byte[] digits = new byte[20];
+
+    public CsvWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    public CsvWriter(Path file) throws IOException {
+        this(Files.newOutputStream(file));
+    }
+
+    // Significant digits per value, 1..17. 17 always round-trips; 15 (default) is exact for any
+    // value that came from a decimal with at most 15 digits
+    public void setPrecision(int precision) {
+        if (precision < 1 || precision > 17) throw new IllegalArgumentException("Precision must be within 1..17: " + precision);
+        this.precision = precision;
+    }
+
+    public void writeHeader(String... names) throws IOException {
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) put((byte) ',');
+            byte[] name = quote(names[i]).getBytes(StandardCharsets.UTF_8);
+            for (byte b : name) put(b);
+        }
+        put((byte) '\n');
+    }
+
+    public void writeRow(double... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (pos + MAX_VALUE_LENGTH + 1 > buf.length) flushBuffer();
+            if (i > 0) buf[pos++] = ',';
+            pos = format(values[i], buf, pos);
+        }
+        put((byte) '\n');
+    }
+
+    // Column-major data, one array per channel, all the same length
+    public void writeColumns(double[]... columns) throws IOException {
+        int n = columns.length == 0 ? 0 : columns[0].length;
+        for (double[] column : columns) {
+            if (column.length != n) throw new IllegalArgumentException("Column lengths differ: " + column.length + " vs " + n);
+        }
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < columns.length; c++) {
+                if (pos + MAX_VALUE_LENGTH + 1 > buf.length) flushBuffer();
+                if (c > 0) buf[pos++] = ',';
+                pos = format(columns[c][r], buf, pos);
+            }
+            put((byte) '\n');
+        }
+    }
+
+    private void put(byte b) throws IOException {
+        if (pos == buf.length) flushBuffer();
+        buf[pos++] = b;
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buf, 0, pos);
+        pos = 0;
+    }
+
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBuffer();
+        out.close();
+    }
+
+    // Writes v with the configured significant digits at dst[pos..]; returns the new position.
+    // Plain notation for 1e-4 <= |v| < 1e15, scientific otherwise, trailing zeros trimmed.
+    int format(double v, byte[] dst, int pos) {
+        if (v != v) return ascii("NaN", dst, pos);
+        if (v == Double.POSITIVE_INFINITY) return ascii("Infinity", dst, pos);
+        if (v == Double.NEGATIVE_INFINITY) return ascii("-Infinity", dst, pos);
+        if (v == 0) {
+            if (1 / v < 0) dst[pos++] = '-';
+            dst[pos++] = '0';
+            return pos;
+        }
+        if (v < 0) {
+            dst[pos++] = '-';
+            v = -v;
+        }
+        if (precision > 15) return ascii(Double.toString(v), dst, pos); // Beyond exact long scaling
+
+        // Scale to a precision-digit integer m with v ~ m * 10^(exp - precision + 1)
+        int exp = (int) Math.floor(Math.log10(v));
+        long m = scale(v, precision - 1 - exp);
+        if (m >= POW10[precision]) { // log10 rounded down across a power of ten
+            exp++;
+            m = scale(v, precision - 1 - exp);
+        } else if (m < POW10[precision - 1]) {
+            exp--;
+            m = scale(v, precision - 1 - exp);
+        }
+        if (m >= POW10[precision]) { // Rounded up to the next power of ten, e.g. 9.99..96 -> 10
+            m /= 10;
+            exp++;
+        }
+
+        int n = 0;
+        for (long q = m; n < precision; q /= 10) digits[precision - 1 - n++] = (byte) ('0' + q % 10);
+        int significant = precision;
+        while (significant > 1 && digits[significant - 1] == '0') significant--;
+
+        if (exp >= -4 && exp < 15) {
+            if (exp < 0) {
+                // 0.000ddd
+                dst[pos++] = '0';
+                dst[pos++] = '.';
+                for (int i = -1; i > exp; i--) dst[pos++] = '0';
+                for (int i = 0; i < significant; i++) dst[pos++] = digits[i];
+            } else {
+                // ddd.ddd
+                for (int i = 0; i <= exp; i++) dst[pos++] = i < significant ? digits[i] : (byte) '0';
+                if (significant > exp + 1) {
+                    dst[pos++] = '.';
+                    for (int i = exp + 1; i < significant; i++) dst[pos++] = digits[i];
+                }
+            }
+            return pos;
+        }
+
+        // d.dddE[-]xx
+        dst[pos++] = digits[0];
+        if (significant > 1) {
+            dst[pos++] = '.';
+            for (int i = 1; i < significant; i++) dst[pos++] = digits[i];
+        }
+        dst[pos++] = 'E';
+        if (exp < 0) {
+            dst[pos++] = '-';
+            exp = -exp;
+        }
+        if (exp >= 100) dst[pos++] = (byte) ('0' + exp / 100);
+        if (exp >= 10) dst[pos++] = (byte) ('0' + exp / 10 % 10);
+        dst[pos++] = (byte) ('0' + exp % 10);
+        return pos;
+    }
+
+    // round(v * 10^k) using exact powers of ten where possible
+    private static long scale(double v, int k) {
+        for (; k > 22; k -= 22) v *= EXACT[22]; // Only near the ends of the double range
+        for (; k < -22; k += 22) v /= EXACT[22];
+        return Math.round(k >= 0 ? v * EXACT[k] : v / EXACT[-k]);
+    }
+
+    private static final double[] EXACT = new double[23]; // 10^0 .. 10^22 are exact doubles
+    static {
+        EXACT[0] = 1;
+        for (int i = 1; i < EXACT.length; i++) EXACT[i] = EXACT[i - 1] * 10;
+    }
+
+    private static int ascii(String s, byte[] dst, int pos) {
+        for (int i = 0; i < s.length(); i++) dst[pos++] = (byte) s.charAt(i);
+        return pos;
+    }
+
+    private static String quote(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+}
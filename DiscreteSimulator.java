@@ -0,0 +1,340 @@
+// Discrete-time state-space model x[k+1] = Ad x[k] + Bd u[k], y[k] = Cd x[k] + Dd u[k].
+// The transition matrix is computed once per dt, so each sample costs one matrix-vector multiply.
+public class DiscreteSimulator implements Simulator {
+    private final int n; // Order of the system
+    private final double dt; // [s]
+    private final double[] ad; // n x n, row-major
+    private final double[] bd;
+    private final double[] cd;
+    private final double dd;
+    private final double[] poleRe; // Discrete poles, used for the second-order section form
+    private final double[] poleIm;
+    private double[] zeroRe; // Finite discrete zeros when known in closed form, else null
+    private double[] zeroIm;
+    private double zeroGain = Double.NaN; // Cascade gain when known in closed form
+
+    private double[] x;
+    private double[] next;
+
+    public DiscreteSimulator(double[] ad, double[] bd, double[] cd, double dd,
+                             double[] poleRe, double[] poleIm, double dt) {
+        this.n = bd.length;
+        this.dt = dt;
+        this.ad = ad;
+        this.bd = bd;
+        this.cd = cd;
+        this.dd = dd;
+        this.poleRe = poleRe;
+        this.poleIm = poleIm;
+        this.x = new double[n];
+        this.next = new double[n];
+    }
+
+    @Override
+    public DiscreteSimulator fresh() {
+        DiscreteSimulator sim = new DiscreteSimulator(ad, bd, cd, dd, poleRe, poleIm, dt);
+        sim.zeroRe = zeroRe;
+        sim.zeroIm = zeroIm;
+        sim.zeroGain = zeroGain;
+        return sim;
+    }
+
+    public static DiscreteSimulator discretize(TransferFunction tf, double dt, Solver method) {
+        double[] num = tf.getNum();
+        double[] den = tf.getDen();
+        int n = den.length - 1;
+        int m = num.length - 1;
+        if (n < 0 || den[0] == 0) throw new IllegalArgumentException("Leading denominator coefficient must be nonzero");
+        if (m > n) throw new IllegalArgumentException("Transfer function must be proper (deg num <= deg den)");
+
+        // Continuous companion-form realization
+        double[] paddedNum = new double[n + 1];
+        System.arraycopy(num, 0, paddedNum, n - m, num.length);
+        double D = paddedNum[0] / den[0];
+        double[] A = new double[n * n];
+        double[] B = new double[n];
+        double[] C = new double[n];
+        for (int i = 0; i < n - 1; i++) A[i * n + i + 1] = 1.0;
+        for (int i = 0; i < n; i++) {
+            A[(n - 1) * n + i] = -den[n - i] / den[0];
+            C[i] = paddedNum[n - i] - D * den[n - i];
+        }
+        if (n > 0) B[n - 1] = 1.0 / den[0];
+
+        double[][] poles = Polynomials.roots(den);
+        double[] pr = poles[0];
+        double[] pi = poles[1];
+        double[] zr = new double[n];
+        double[] zi = new double[n];
+
+        switch (method) {
+            case ZOH: {
+                // exp([[A, B], [0, 0]] dt) = [[Ad, Bd], [0, I]]
+                int na = n + 1;
+                double[] M = new double[na * na];
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) M[i * na + j] = A[i * n + j] * dt;
+                    M[i * na + n] = B[i] * dt;
+                }
+                double[] E = Matrices.expm(M, na);
+                double[] Ad = new double[n * n];
+                double[] Bd = new double[n];
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) Ad[i * n + j] = E[i * na + j];
+                    Bd[i] = E[i * na + n];
+                }
+                mapExp(pr, pi, dt, zr, zi);
+                return new DiscreteSimulator(Ad, Bd, C, D, zr, zi, dt);
+            }
+            case TUSTIN: {
+                // (I - A dt/2) x[k+1] = (I + A dt/2) x[k] + B dt/2 (u[k] + u[k+1]).
+                // With w = x - q u and q = (I - A dt/2)^-1 B dt/2 the model needs no look-ahead.
+                double[] I = Matrices.identity(n);
+                double[] Mminus = Matrices.add(I, A, -dt / 2);
+                double[] Mplus = Matrices.add(I, A, dt / 2);
+                double[] Ad = Matrices.solve(Mminus, Mplus, n);
+                double[] q = Matrices.solveVector(Mminus, Matrices.scale(B, dt / 2), n);
+                double[] Bd = new double[n];
+                Matrices.multiply(Ad, q, Bd, n);
+                double Dd = D;
+                for (int i = 0; i < n; i++) {
+                    Bd[i] += q[i];
+                    Dd += C[i] * q[i];
+                }
+                for (int k = 0; k < n; k++) {
+                    // z = (1 + s dt/2) / (1 - s dt/2)
+                    double ar = 1 + pr[k] * dt / 2, ai = pi[k] * dt / 2;
+                    double br = 1 - pr[k] * dt / 2, bi = -pi[k] * dt / 2;
+                    double bm = br * br + bi * bi;
+                    zr[k] = (ar * br + ai * bi) / bm;
+                    zi[k] = (ai * br - ar * bi) / bm;
+                }
+                DiscreteSimulator tustin = new DiscreteSimulator(Ad, Bd, C, Dd, zr, zi, dt);
+                // Finite zeros map like the poles and zeros at infinity land on z = -1
+                double[][] zeros = Polynomials.roots(paddedNum);
+                double[] tzr = new double[n], tzi = new double[n];
+                for (int k = 0; k < n; k++) tzr[k] = -1.0;
+                for (int k = 0; k < zeros[0].length; k++) {
+                    double ar = 1 + zeros[0][k] * dt / 2, ai = zeros[1][k] * dt / 2;
+                    double br = 1 - zeros[0][k] * dt / 2, bi = -zeros[1][k] * dt / 2;
+                    double bm = br * br + bi * bi;
+                    tzr[k] = (ar * br + ai * bi) / bm;
+                    tzi[k] = (ai * br - ar * bi) / bm;
+                }
+                tustin.zeroRe = tzr;
+                tustin.zeroIm = tzi;
+                return tustin;
+            }
+            case MATCHED:
+                return matched(paddedNum, den, pr, pi, dt);
+            default:
+                throw new IllegalArgumentException("Not a discretization method: " + method);
+        }
+    }
+
+    // Poles and finite zeros map through z = e^(s dt). All but one zero at infinity go to z = -1,
+    // keeping a one-sample delay for strictly proper systems, and the gain is matched at low frequency.
+    private static DiscreteSimulator matched(double[] num, double[] den, double[] pr, double[] pi, double dt) {
+        int n = den.length - 1;
+        double[][] zeros = Polynomials.roots(num);
+        int finite = zeros[0].length;
+
+        double[] zpr = new double[n], zpi = new double[n];
+        mapExp(pr, pi, dt, zpr, zpi);
+
+        int toMinusOne = finite < n ? n - finite - 1 : 0;
+        double[] zzr = new double[finite + toMinusOne];
+        double[] zzi = new double[finite + toMinusOne];
+        mapExp(zeros[0], zeros[1], dt, zzr, zzi);
+        for (int k = finite; k < zzr.length; k++) zzr[k] = -1.0;
+
+        double[] denZ = Polynomials.fromRoots(zpr, zpi);
+        double[] numZ = Polynomials.fromRoots(zzr, zzi);
+
+        // Match H(s0) with H(e^(s0 dt)) at a real point that avoids poles and zeros at the origin
+        double s0 = 0.0;
+        if (Math.abs(Polynomials.evaluate(den, 0)) < 1e-12 || Math.abs(Polynomials.evaluate(num, 0)) < 1e-12) {
+            s0 = 0.01 / dt;
+        }
+        double hc = Polynomials.evaluate(num, s0) / Polynomials.evaluate(den, s0);
+        double z0 = Math.exp(s0 * dt);
+        double hd = Polynomials.evaluate(numZ, z0) / Polynomials.evaluate(denZ, z0);
+        double k = hd == 0 ? 0.0 : hc / hd;
+
+        // Difference equation b(z)/a(z) in controllable companion form
+        double[] b = new double[n + 1];
+        for (int i = 0; i < numZ.length; i++) b[n + 1 - numZ.length + i] = k * numZ[i];
+        double[] Ad = new double[n * n];
+        double[] Bd = new double[n];
+        double[] Cd = new double[n];
+        for (int i = 0; i < n - 1; i++) Ad[i * n + i + 1] = 1.0;
+        for (int i = 0; i < n; i++) {
+            Ad[(n - 1) * n + i] = -denZ[n - i];
+            Cd[i] = b[n - i] - b[0] * denZ[n - i];
+        }
+        if (n > 0) Bd[n - 1] = 1.0;
+        DiscreteSimulator sim = new DiscreteSimulator(Ad, Bd, Cd, b[0], zpr, zpi, dt);
+        sim.zeroRe = zzr;
+        sim.zeroIm = zzi;
+        sim.zeroGain = k;
+        return sim;
+    }
+
+    private static void mapExp(double[] re, double[] im, double dt, double[] outRe, double[] outIm) {
+        for (int k = 0; k < re.length; k++) {
+            double mag = Math.exp(re[k] * dt);
+            outRe[k] = mag * Math.cos(im[k] * dt);
+            outIm[k] = mag * Math.sin(im[k] * dt);
+        }
+    }
+
+    // Equivalent cascade of second-order sections, O(n) per sample instead of O(n^2).
+    // Like toBiquads, but null when the roots do not pair into real sections or the sections
+    // miss this model's impulse response, as with tightly clustered repeated poles whose
+    // computed roots are only accurate to a fraction of a percent. The dense form is exact either way.
+    public BiquadCascade toBiquadsIfAccurate() {
+        BiquadCascade cascade;
+        try {
+            cascade = toBiquads();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        DiscreteSimulator dense = fresh();
+        double peak = 0.0, error = 0.0;
+        for (int k = 0; k < 8 * n; k++) {
+            double u = k == 0 ? 1.0 : 0.0;
+            double y = dense.step(u);
+            peak = Math.max(peak, Math.abs(y));
+            error = Math.max(error, Math.abs(y - cascade.step(u)));
+        }
+        if (!(error <= 1e-6 * peak)) return null;
+        cascade.reset();
+        return cascade;
+    }
+
+    public BiquadCascade toBiquads() {
+        double[] finiteRe, finiteIm;
+        double gain;
+        int delays;
+        if (zeroRe != null) {
+            // Repeated zeros (e.g. at z = -1) are ill-conditioned for root finding, so use the exact ones
+            finiteRe = zeroRe;
+            finiteIm = zeroIm;
+            delays = n - zeroRe.length;
+            gain = Double.isNaN(zeroGain) ? gainAt(1.0, delays) : zeroGain;
+        } else {
+            // Numerator b(z) = a(z) * sum h[k] z^-k from the Markov parameters h[k] = Cd Ad^(k-1) Bd
+            double[] a = Polynomials.fromRoots(poleRe, poleIm);
+            double[] h = new double[n + 1];
+            h[0] = dd;
+            double[] v = bd.clone();
+            double[] w = new double[n];
+            for (int k = 1; k <= n; k++) {
+                double acc = 0.0;
+                for (int j = 0; j < n; j++) acc += cd[j] * v[j];
+                h[k] = acc;
+                Matrices.multiply(ad, v, w, n);
+                double[] t = v;
+                v = w;
+                w = t;
+            }
+            double[] b = new double[n + 1];
+            double scale = 0.0;
+            for (int j = 0; j <= n; j++) {
+                for (int i = 0; i <= j; i++) b[j] += a[i] * h[j - i];
+                scale = Math.max(scale, Math.abs(b[j]));
+            }
+
+            delays = 0;
+            while (delays < n && Math.abs(b[delays]) <= 1e-14 * scale) delays++;
+            double[] finite = new double[n + 1 - delays];
+            System.arraycopy(b, delays, finite, 0, finite.length);
+            double[][] zeros = Polynomials.roots(finite);
+            finiteRe = zeros[0];
+            finiteIm = zeros[1];
+            gain = b[delays];
+        }
+
+        double[] zr = new double[n];
+        double[] zi = new double[n];
+        for (int k = 0; k < n; k++) {
+            if (k < finiteRe.length) {
+                zr[k] = finiteRe[k];
+                zi[k] = finiteIm[k];
+            } else {
+                zr[k] = Double.NaN; // Zero at infinity: one sample of delay
+            }
+        }
+        return BiquadCascade.fromRoots(gain, zr, zi, poleRe, poleIm, dt);
+    }
+
+    // Cascade gain that reproduces H(z0) = Cd (z0 I - Ad)^-1 Bd + Dd at a real point z0
+    private double gainAt(double z0, int delays) {
+        for (int k = 0; k < n; k++) {
+            if (Math.hypot(poleRe[k] - z0, poleIm[k]) < 1e-6) return gainAt(z0 + 0.5, delays);
+        }
+        double[] M = Matrices.scale(ad, -1.0);
+        for (int i = 0; i < n; i++) M[i * n + i] += z0;
+        double[] v = Matrices.solveVector(M, bd, n);
+        double h = dd;
+        for (int i = 0; i < n; i++) h += cd[i] * v[i];
+
+        // prod (1 - p/z0) over poles divided by prod (1 - z/z0) over zeros and z0^-delays
+        double ratio = Math.pow(z0, delays);
+        for (int k = 0; k < n; k++) {
+            if (poleIm[k] == 0) ratio *= 1 - poleRe[k] / z0;
+            else if (poleIm[k] > 0) ratio *= (1 - poleRe[k] / z0) * (1 - poleRe[k] / z0) + (poleIm[k] / z0) * (poleIm[k] / z0);
+        }
+        for (int k = 0; k < zeroRe.length; k++) {
+            if (zeroIm[k] == 0) ratio /= 1 - zeroRe[k] / z0;
+            else if (zeroIm[k] > 0) ratio /= (1 - zeroRe[k] / z0) * (1 - zeroRe[k] / z0) + (zeroIm[k] / z0) * (zeroIm[k] / z0);
+        }
+        return h * ratio;
+    }
+
+    @Override
+    public int order() { return this.n; }
+
+    @Override
+    public double dt() { return this.dt; }
+
+    @Override
+    public double peek(double u) {
+        double y = dd * u;
+        for (int j = 0; j < n; j++) {
+            y += cd[j] * x[j];
+        }
+        return y;
+    }
+
+    @Override
+    public double step(double u) {
+        double y = dd * u;
+        for (int j = 0; j < n; j++) {
+            y += cd[j] * x[j];
+        }
+        for (int i = 0; i < n; i++) {
+            double acc = bd[i] * u;
+            int row = i * n;
+            for (int j = 0; j < n; j++) {
+                acc += ad[row + j] * x[j];
+            }
+            next[i] = acc;
+        }
+        double[] t = x;
+        x = next;
+        next = t;
+        return y;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < n; i++) x[i] = 0.0;
+    }
+
+    @Override
+    public void getState(double[] dst) { System.arraycopy(x, 0, dst, 0, n); }
+
+    @Override
+    public void setState(double[] src) { System.arraycopy(src, 0, x, 0, n); }
+}
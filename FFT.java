@@ -0,0 +1,86 @@
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-place iterative radix-2 FFT on split real/imaginary arrays. Twiddle and bit-reversal
+// tables are built once per size and shared, so transforms allocate nothing.
+public class FFT {
+    private static final ConcurrentHashMap<Integer, FFT> CACHE = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final double[] cos; // cos(2 pi k / size), k < size / 2
+    private final double[] sin;
+    private final int[] reverse;
+
+    private FFT(int size) {
+        this.size = size;
+        int half = size / 2;
+        this.cos = new double[half];
+        this.sin = new double[half];
+        for (int k = 0; k < half; k++) {
+            double theta = 2 * Math.PI * k / size;
+            cos[k] = Math.cos(theta);
+            sin[k] = Math.sin(theta);
+        }
+        int bits = Integer.numberOfTrailingZeros(size);
+        this.reverse = new int[size];
+        for (int i = 0; i < size; i++) {
+            reverse[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+        }
+    }
+
+    public static FFT forSize(int size) {
+        if (size <= 0 || Integer.bitCount(size) != 1) throw new IllegalArgumentException("FFT size must be a power of two: " + size);
+        return CACHE.computeIfAbsent(size, FFT::new);
+    }
+
+    public static int nextPowerOfTwo(int n) {
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    public int size() { return this.size; }
+
+    public void forward(double[] re, double[] im) { transform(re, im, false); }
+
+    // Includes the 1/size normalization
+    public void inverse(double[] re, double[] im) {
+        transform(re, im, true);
+        double scale = 1.0 / size;
+        for (int i = 0; i < size; i++) {
+            re[i] *= scale;
+            im[i] *= scale;
+        }
+    }
+
+    private void transform(double[] re, double[] im, boolean inverse) {
+        for (int i = 0; i < size; i++) {
+            int j = reverse[i];
+            if (j > i) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+
+        double sign = inverse ? 1.0 : -1.0;
+        for (int len = 2; len <= size; len <<= 1) {
+            int half = len >> 1;
+            int stride = size / len;
+            for (int start = 0; start < size; start += len) {
+                for (int k = 0; k < half; k++) {
+                    double wr = cos[k * stride];
+                    double wi = sign * sin[k * stride];
+                    int p = start + k;
+                    int q = p + half;
+                    double xr = re[q] * wr - im[q] * wi;
+                    double xi = re[q] * wi + im[q] * wr;
+                    re[q] = re[p] - xr;
+                    im[q] = im[p] - xi;
+                    re[p] += xr;
+                    im[p] += xi;
+                }
+            }
+        }
+    }
+}
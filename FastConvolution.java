@@ -0,0 +1,182 @@
+import java.util.Arrays;
+
+// Simulates by convolving the input with the system's (truncated) sampled impulse response using
+// overlap-add FFT blocks. The sampled response comes from the same Simulator that would otherwise
+// run the recursion, so the two engines agree up to the truncation threshold.
+public class FastConvolution {
+    private static final int MIN_TAIL = 64; // Quiet samples required before truncating
+    static final int MAX_RESPONSE_LENGTH = 1 << 24; // Longest h frequencyResponse(TransferFunction, ...) builds
+
+    private final double[] h; // Truncated impulse response
+    private final FFT fft;
+    private final int block; // Input samples per FFT block
+    private final double[] hRe, hIm; // Spectrum of h
+    private final double[] re, im; // Scratch
+    private final double[] overlap;
+
+    public FastConvolution(double[] h) {
+        this(h, bestFftSize(h.length));
+    }
+
+    public FastConvolution(double[] h, int fftSize) {
+        if (fftSize < h.length) throw new IllegalArgumentException("FFT size " + fftSize + " is shorter than the impulse response");
+        this.h = h;
+        this.fft = FFT.forSize(fftSize);
+        this.block = fftSize - h.length + 1;
+        this.hRe = new double[fftSize];
+        this.hIm = new double[fftSize];
+        System.arraycopy(h, 0, hRe, 0, h.length);
+        fft.forward(hRe, hIm);
+        this.re = new double[fftSize];
+        this.im = new double[fftSize];
+        this.overlap = new double[fftSize];
+    }
+
+    public static FastConvolution fromTransferFunction(TransferFunction tf, double dt, double threshold, int maxLength) {
+        return new FastConvolution(impulseResponse(tf.compile(dt), threshold, maxLength));
+    }
+
+    // Response to a unit sample, stopped once MIN_TAIL consecutive samples (at least the system order
+    // times that) fall below threshold * peak. The simulator is reset before and after.
+    public static double[] impulseResponse(Simulator sim, double threshold, int maxLength) {
+        sim.reset();
+        double[] h = new double[Math.min(maxLength, 1024)];
+        double peak = 0.0;
+        int quiet = 0;
+        int tail = Math.max(MIN_TAIL, MIN_TAIL * sim.order());
+        int len = 0;
+        while (len < maxLength) {
+            double y = sim.step(len == 0 ? 1.0 : 0.0);
+            if (len == h.length) h = Arrays.copyOf(h, Math.min(maxLength, 2 * h.length));
+            h[len++] = y;
+
+            double mag = Math.abs(y);
+            if (mag > peak) peak = mag;
+            if (mag <= threshold * peak) {
+                if (++quiet >= tail) break;
+            } else {
+                quiet = 0;
+            }
+        }
+        sim.reset();
+        return Arrays.copyOf(h, Math.max(1, len - quiet));
+    }
+
+    public double[] getImpulseResponse() { return this.h; }
+
+    public int fftSize() { return this.fft.size(); }
+
+    public double[] simulate(double[] input) {
+        double[] output = new double[input.length];
+        int size = fft.size();
+        for (int i = 0; i < size; i++) overlap[i] = 0.0;
+
+        for (int start = 0; start < input.length; start += block) {
+            int len = Math.min(block, input.length - start);
+            System.arraycopy(input, start, re, 0, len);
+            for (int i = len; i < size; i++) re[i] = 0.0;
+            for (int i = 0; i < size; i++) im[i] = 0.0;
+
+            fft.forward(re, im);
+            for (int i = 0; i < size; i++) {
+                double r = re[i] * hRe[i] - im[i] * hIm[i];
+                im[i] = re[i] * hIm[i] + im[i] * hRe[i];
+                re[i] = r;
+            }
+            fft.inverse(re, im);
+
+            // Emit this block plus the tail carried from the previous one, then keep the new tail
+            for (int i = 0; i < size; i++) re[i] += overlap[i];
+            int emit = Math.min(block, input.length - start);
+            System.arraycopy(re, 0, output, start, emit);
+            int keep = size - block;
+            System.arraycopy(re, block, overlap, 0, keep);
+            for (int i = keep; i < size; i++) overlap[i] = 0.0;
+        }
+        return output;
+    }
+
+    // Power-of-two size minimizing the FFT work per output sample
+    public static int bestFftSize(int impulseLength) {
+        int best = FFT.nextPowerOfTwo(2 * impulseLength);
+        double bestCost = perSampleCost(best, impulseLength);
+        for (int size = best * 2; size <= best * 16; size *= 2) {
+            double cost = perSampleCost(size, impulseLength);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = size;
+            }
+        }
+        return best;
+    }
+
+    private static double perSampleCost(int size, int impulseLength) {
+        int log = Integer.numberOfTrailingZeros(size);
+        return (2 * 5.0 * size * log + 6.0 * size) / (size - impulseLength + 1);
+    }
+
+    private static double recursionCost(int order) {
+        return 12.0 * order + 8; // Flops per RK4 sample with the companion-form derivative
+    }
+
+    // True when computing h and convolving beats time-stepping the recursion over the whole input
+    public static boolean isFaster(int order, int impulseLength, long inputLength) {
+        if (inputLength < 4L * impulseLength) return false;
+        int size = bestFftSize(impulseLength);
+        double setup = impulseLength * recursionCost(order) + 5.0 * size * Integer.numberOfTrailingZeros(size);
+        return setup + inputLength * perSampleCost(size, impulseLength) < inputLength * recursionCost(order);
+    }
+
+    // Picks FFT convolution or the RK4 recursion, whichever is estimated to be cheaper
+    public static double[] simulate(TransferFunction tf, double[] input, double dt, double threshold) {
+        CompiledSimulator sim = tf.compile(dt);
+        int maxLength = Math.max(1, input.length / 4);
+        // Cost grows with the impulse length, so if even the shortest possible h loses, skip computing it
+        int shortest = Math.max(MIN_TAIL, MIN_TAIL * sim.order());
+        if (!isFaster(sim.order(), shortest, input.length)) return sim.simulate(input);
+
+        double[] h = impulseResponse(sim, threshold, maxLength + 1);
+        if (h.length > maxLength || !isFaster(sim.order(), h.length, input.length)) return sim.simulate(input);
+        return new FastConvolution(h).simulate(input);
+    }
+
+    // Frequency response of the sampled system at nfft / 2 + 1 evenly spaced frequencies from 0 to
+    // the Nyquist rate. Returns {omega [rad/s], magnitude, phase [rad]}. Near DC this approximates
+    // the continuous H(j omega); close to Nyquist the sample-and-hold of the input shows.
+    public static double[][] frequencyResponse(double[] h, double dt, int nfft) {
+        FFT f = FFT.forSize(nfft);
+        double[] re = new double[nfft];
+        double[] im = new double[nfft];
+        // Fold a response longer than nfft; it only matters if h has not decayed
+        for (int i = 0; i < h.length; i++) re[i % nfft] += h[i];
+        f.forward(re, im);
+
+        int bins = nfft / 2 + 1;
+        double[] omega = new double[bins];
+        double[] mag = new double[bins];
+        double[] phase = new double[bins];
+        for (int k = 0; k < bins; k++) {
+            omega[k] = 2 * Math.PI * k / (nfft * dt);
+            mag[k] = Math.hypot(re[k], im[k]);
+            phase[k] = Math.atan2(im[k], re[k]);
+        }
+        return new double[][] {omega, mag, phase};
+    }
+
+    // Same, from the RK4-sampled impulse response of tf. That only decays for a stable system, so
+    // integrators and undamped modes are rejected here; TransferFunction.frequencyResponse evaluates
+    // those at chosen frequencies instead.
+    public static double[][] frequencyResponse(TransferFunction tf, double dt, int nfft, double threshold) {
+        double[][] poles = Polynomials.roots(tf.getDen());
+        for (int i = 0; i < poles[0].length; i++) {
+            if (poles[0][i] > -1e-9 * Math.max(1.0, Math.hypot(poles[0][i], poles[1][i]))) {
+                throw new IllegalArgumentException("Impulse response does not decay: pole at " + poles[0][i] + (poles[1][i] < 0 ? " - " : " + ") + Math.abs(poles[1][i]) + "j");
+            }
+        }
+        double[] h = impulseResponse(tf.compile(dt), threshold, MAX_RESPONSE_LENGTH + 1);
+        if (h.length > MAX_RESPONSE_LENGTH) {
+            throw new IllegalArgumentException("Impulse response still above " + threshold + " of its peak after " + MAX_RESPONSE_LENGTH + " samples; use a larger dt or TransferFunction.frequencyResponse");
+        }
+        return frequencyResponse(h, dt, Math.max(nfft, FFT.nextPowerOfTwo(h.length)));
+    }
+}
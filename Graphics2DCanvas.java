@@ -0,0 +1,87 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// PlotCanvas over a Graphics2D, either a Swing component's or an offscreen image's
+public class Graphics2DCanvas implements PlotCanvas {
+    // Marker sprites by color and radius, stamped instead of filling an oval per point
+    private static final Map<Long, BufferedImage> sprites = new ConcurrentHashMap<>();
+
+    private static final Shape NO_CLIP = new Rectangle(); // Stands in for a null clip on the stack
+
+    private final Graphics2D g2;
+    private final Deque<Shape> clips = new ArrayDeque<>();
+    private Color color = Color.BLACK;
+
+    public Graphics2DCanvas(Graphics2D g2) {
+        this.g2 = g2;
+    }
+
+    public Graphics2D getGraphics() { return this.g2; }
+
+    @Override
+    public void setColor(Color color) {
+        this.color = color;
+        g2.setColor(color);
+    }
+
+    @Override
+    public void setAntialias(boolean antialias) {
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                antialias ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) { g2.drawLine(x1, y1, x2, y2); }
+
+    @Override
+    public void drawPolyline(int[] x, int[] y, int n) { g2.drawPolyline(x, y, n); }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height) { g2.fillRect(x, y, width, height); }
+
+    @Override
+    public void fillMarker(int x, int y, int radius) {
+        g2.drawImage(sprite(color, radius), x - radius, y - radius, null);
+    }
+
+    @Override
+    public void drawString(String text, int x, int y) { g2.drawString(text, x, y); }
+
+    @Override
+    public int stringWidth(String text) { return g2.getFontMetrics().stringWidth(text); }
+
+    @Override
+    public void pushClip(int x, int y, int width, int height) {
+        Shape clip = g2.getClip();
+        clips.push(clip == null ? NO_CLIP : clip);
+        g2.clipRect(x, y, width, height);
+    }
+
+    @Override
+    public void popClip() {
+        Shape clip = clips.pop();
+        g2.setClip(clip == NO_CLIP ? null : clip);
+    }
+
+    private static BufferedImage sprite(Color color, int radius) {
+        long key = ((long) color.getRGB() << 8) | radius;
+        return sprites.computeIfAbsent(key, k -> {
+            int size = 2 * radius + 1;
+            BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(color);
+            g.fillOval(0, 0, 2 * radius, 2 * radius);
+            g.dispose();
+            return image;
+        });
+    }
+}
@@ -0,0 +1,172 @@
+// A-stable implicit integrators for stiff systems. The iteration matrix (I - gamma dt A) is
+// LU-factorized once in the constructor and reused for every step.
+public class ImplicitSimulator implements Simulator {
+    public enum Method {
+        TRAPEZOIDAL, // 2nd order, A-stable
+        BDF2         // 2nd order, L-stable; starts with one trapezoidal step
+    }
+
+    private final Method method;
+    private final int n; // Order of the system
+    private final double dt; // [s]
+
+    // Companion-form realization, see CompiledSimulator
+    private final double[] a;
+    private final double b;
+    private final double[] c;
+    private final double d;
+
+    private final double[] trapLu; // LU of I - dt/2 A
+    private final int[] trapPiv;
+    private final double[] bdfLu; // LU of I - 2 dt/3 A, BDF2 only
+    private final int[] bdfPiv;
+
+    private final double[] x, prev, rhs;
+    private boolean started; // BDF2 has a previous state
+
+    public ImplicitSimulator(double[] num, double[] den, double dt, Method method) {
+        int n = den.length - 1;
+        int m = num.length - 1;
+        if (n < 0 || den[0] == 0) throw new IllegalArgumentException("Leading denominator coefficient must be nonzero");
+        if (m > n) throw new IllegalArgumentException("Transfer function must be proper (deg num <= deg den)");
+
+        double[] paddedNum = new double[n + 1];
+        System.arraycopy(num, 0, paddedNum, n - m, num.length);
+
+        this.method = method;
+        this.n = n;
+        this.dt = dt;
+        this.d = paddedNum[0] / den[0];
+        this.b = 1.0 / den[0];
+        this.a = new double[n];
+        this.c = new double[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = -den[n - i] / den[0];
+            c[i] = paddedNum[n - i] - d * den[n - i];
+        }
+
+        this.trapLu = iterationMatrix(dt / 2);
+        this.trapPiv = Matrices.luDecompose(trapLu, n);
+        if (method == Method.BDF2) {
+            this.bdfLu = iterationMatrix(2 * dt / 3);
+            this.bdfPiv = Matrices.luDecompose(bdfLu, n);
+        } else {
+            this.bdfLu = null;
+            this.bdfPiv = null;
+        }
+
+        this.x = new double[n];
+        this.prev = new double[n];
+        this.rhs = new double[n];
+    }
+
+    public ImplicitSimulator(TransferFunction tf, double dt, Method method) {
+        this(tf.getNum(), tf.getDen(), dt, method);
+    }
+
+    // Shares the realization and LU factors of proto, with its own state
+    private ImplicitSimulator(ImplicitSimulator proto) {
+        this.method = proto.method;
+        this.n = proto.n;
+        this.dt = proto.dt;
+        this.a = proto.a;
+        this.b = proto.b;
+        this.c = proto.c;
+        this.d = proto.d;
+        this.trapLu = proto.trapLu;
+        this.trapPiv = proto.trapPiv;
+        this.bdfLu = proto.bdfLu;
+        this.bdfPiv = proto.bdfPiv;
+        this.x = new double[n];
+        this.prev = new double[n];
+        this.rhs = new double[n];
+    }
+
+    @Override
+    public ImplicitSimulator fresh() { return new ImplicitSimulator(this); }
+
+    // I - gamma A for the companion matrix A
+    private double[] iterationMatrix(double gamma) {
+        double[] M = Matrices.identity(n);
+        for (int i = 0; i < n - 1; i++) M[i * n + i + 1] = -gamma;
+        for (int j = 0; j < n; j++) M[(n - 1) * n + j] -= gamma * a[j];
+        return M;
+    }
+
+    public Method getMethod() { return this.method; }
+
+    @Override
+    public int order() { return this.n; }
+
+    @Override
+    public double dt() { return this.dt; }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < n; i++) x[i] = 0.0;
+        started = false;
+    }
+
+    @Override
+    public void getState(double[] dst) { System.arraycopy(x, 0, dst, 0, n); }
+
+    // BDF2 restarts from the given state with a trapezoidal step unless setHistory follows
+    @Override
+    public void setState(double[] src) {
+        System.arraycopy(src, 0, x, 0, n);
+        started = false;
+    }
+
+    // BDF2: the previous state and whether there is one
+    @Override
+    public double[] getHistory() {
+        if (method != Method.BDF2) return new double[0];
+        double[] h = new double[n + 1];
+        System.arraycopy(prev, 0, h, 0, n);
+        h[n] = started ? 1.0 : 0.0;
+        return h;
+    }
+
+    @Override
+    public void setHistory(double[] src) {
+        if (method != Method.BDF2) return;
+        System.arraycopy(src, 0, prev, 0, n);
+        started = src[n] != 0;
+    }
+
+    @Override
+    public double peek(double u) {
+        double y = 0.0;
+        for (int j = 0; j < n; j++) {
+            y += c[j] * x[j];
+        }
+        return y + d * u;
+    }
+
+    @Override
+    public double step(double u) {
+        double y = peek(u);
+
+        if (n == 0) return y;
+
+        if (method == Method.BDF2 && started) {
+            // (I - 2dt/3 A) x[k+1] = 4/3 x[k] - 1/3 x[k-1] + 2dt/3 B u
+            for (int i = 0; i < n; i++) rhs[i] = (4 * x[i] - prev[i]) / 3;
+            rhs[n - 1] += 2 * dt / 3 * b * u;
+            System.arraycopy(x, 0, prev, 0, n);
+            Matrices.luSolve(bdfLu, bdfPiv, rhs, x, n);
+        } else {
+            // (I - dt/2 A) x[k+1] = (I + dt/2 A) x[k] + dt B u
+            double h = dt / 2;
+            int last = n - 1;
+            for (int i = 0; i < last; i++) rhs[i] = x[i] + h * x[i + 1];
+            double acc = 0.0;
+            for (int j = 0; j < n; j++) acc += a[j] * x[j];
+            rhs[last] = x[last] + h * acc + dt * b * u;
+            System.arraycopy(x, 0, prev, 0, n);
+            Matrices.luSolve(trapLu, trapPiv, rhs, x, n);
+            started = true;
+        }
+        return y;
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free log-linear histogram in the style of HdrHistogram: values below 64 are counted
+// exactly, larger ones in 32 sub-buckets per power of two (about 3% relative precision). Fixed
+// 15 KiB footprint for any value up to Long.MAX_VALUE, so recording never allocates.
+public class LatencyHistogram {
+    static final int SUB_BITS = 5;
+    static final int SUB = 1 << SUB_BITS; // Sub-buckets per power of two
+    static final int BUCKETS = (64 - SUB_BITS) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    private final LongAdder sum = new LongAdder();
+
+    static int indexOf(long value) {
+        if (value < 2 * SUB) return (int) value;
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exp - SUB_BITS;
+        int top = (int) (value >>> shift); // In [SUB, 2 SUB)
+        return (shift + 1) * SUB + (top - SUB);
+    }
+
+    // Largest value that lands in the bucket, as HdrHistogram reports percentiles
+    static long highestValueAt(int index) {
+        if (index < 2 * SUB) return index;
+        int shift = index / SUB - 1;
+        long top = SUB + index % SUB;
+        return ((top + 1) << shift) - 1;
+    }
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() { return this.count.get(); }
+    public long getMax() { return this.max.get(); }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0.0 : (double) sum.sum() / n;
+    }
+
+    // Value at or below which the given percentage (0..100) of recorded values fall
+    public long getPercentile(double percentile) {
+        long n = count.get();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(highestValueAt(i), max.get());
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.set(0);
+        max.set(0);
+        sum.reset();
+    }
+}
@@ -0,0 +1,71 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Out-of-core simulation for signals stored as raw doubles in files larger than the heap. Input
+// and output are walked in memory-mapped windows and fed through StreamSimulator's DoubleBuffer
+// path, so integrator state carries across window boundaries and the heap only holds the
+// staging blocks. Windows are released by the GC (Java 17 has no explicit unmap); the data
+// itself lives in the OS page cache, not the heap.
+public class MappedSimulator {
+    static final long DEFAULT_WINDOW = 1L << 26; // Bytes mapped at a time per file, 64 MiB
+
+    private final StreamSimulator stream;
+    private long windowBytes = DEFAULT_WINDOW;
+    private ByteOrder order = ByteOrder.LITTLE_ENDIAN; // Same as BinaryResults
+
+    public MappedSimulator(StreamSimulator stream) {
+        this.stream = stream;
+    }
+
+    public MappedSimulator(Simulator sim) {
+        this(new StreamSimulator(sim));
+    }
+
+    public void setWindowSize(long windowBytes) {
+        if (windowBytes < 8 || windowBytes % 8 != 0) throw new IllegalArgumentException("Window must be a positive multiple of 8 bytes: " + windowBytes);
+        this.windowBytes = windowBytes;
+    }
+
+    public void setByteOrder(ByteOrder order) { this.order = order; }
+
+    public StreamSimulator getStream() { return this.stream; }
+
+    // Whole input file; output is created or truncated to the same length. Returns samples processed.
+    public long simulate(Path input, Path output) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (in.size() % 8 != 0) throw new IOException(input + " is not a whole number of doubles (" + in.size() + " bytes)");
+            return simulate(in, 0, in.size() / 8, out, 0);
+        }
+    }
+
+    // count samples starting at byte inOffset of input, written from byte outOffset of output.
+    // Continues from the current state, so consecutive calls extend one simulation.
+    public long simulate(Path input, long inOffset, long count, Path output, long outOffset) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return simulate(in, inOffset, count, out, outOffset);
+        }
+    }
+
+    public long simulate(FileChannel in, long inOffset, long count, FileChannel out, long outOffset) throws IOException {
+        if (inOffset < 0 || outOffset < 0 || count < 0) throw new IllegalArgumentException("Offsets and count must be non-negative");
+        if (inOffset + 8 * count > in.size()) throw new IOException("Input has " + (in.size() - inOffset) / 8 + " samples after offset, " + count + " requested");
+
+        long perWindow = windowBytes / 8;
+        long done = 0;
+        while (done < count) {
+            long chunk = Math.min(count - done, perWindow);
+            MappedByteBuffer inMap = in.map(FileChannel.MapMode.READ_ONLY, inOffset + 8 * done, 8 * chunk);
+            MappedByteBuffer outMap = out.map(FileChannel.MapMode.READ_WRITE, outOffset + 8 * done, 8 * chunk);
+            stream.process(inMap.order(order).asDoubleBuffer(), outMap.order(order).asDoubleBuffer());
+            done += chunk;
+        }
+        return done;
+    }
+}
@@ -0,0 +1,207 @@
+// Dense matrix helpers. Matrices are flat row-major arrays: a[i * n + j] (a[i * cols + j] when
+// not square)
+public class Matrices {
+    static final int TILE = 512; // Columns per pass of the rectangular kernels, so x stays in L1
+
+    public static double[] identity(int n) {
+        double[] I = new double[n * n];
+        for (int i = 0; i < n; i++) I[i * n + i] = 1.0;
+        return I;
+    }
+
+    public static double[] multiply(double[] a, double[] b, int n) {
+        double[] c = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < n; k++) {
+                double aik = a[i * n + k];
+                if (aik == 0) continue;
+                for (int j = 0; j < n; j++) {
+                    c[i * n + j] += aik * b[k * n + j];
+                }
+            }
+        }
+        return c;
+    }
+
+    public static void multiply(double[] a, double[] x, double[] y, int n) {
+        for (int i = 0; i < n; i++) {
+            double acc = 0.0;
+            for (int j = 0; j < n; j++) {
+                acc += a[i * n + j] * x[j];
+            }
+            y[i] = acc;
+        }
+    }
+
+    // rows x inner times inner x cols
+    public static double[] multiply(double[] a, double[] b, int rows, int inner, int cols) {
+        double[] c = new double[rows * cols];
+        for (int i = 0; i < rows; i++) {
+            for (int k = 0; k < inner; k++) {
+                double aik = a[i * inner + k];
+                if (aik == 0) continue;
+                for (int j = 0; j < cols; j++) {
+                    c[i * cols + j] += aik * b[k * cols + j];
+                }
+            }
+        }
+        return c;
+    }
+
+    // y[yOff ..] = a x[xOff ..] for a rows x cols matrix. Four rows per pass share each load of
+    // x, and columns are walked in tiles so the slice of x is reused from cache across passes.
+    public static void multiply(double[] a, int rows, int cols, double[] x, int xOff, double[] y, int yOff) {
+        for (int i = 0; i < rows; i++) y[yOff + i] = 0.0;
+        for (int j0 = 0; j0 < cols; j0 += TILE) {
+            int j1 = Math.min(cols, j0 + TILE);
+            int i = 0;
+            for (; i + 3 < rows; i += 4) {
+                int r0 = i * cols, r1 = r0 + cols, r2 = r1 + cols, r3 = r2 + cols;
+                double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+                for (int j = j0; j < j1; j++) {
+                    double xj = x[xOff + j];
+                    s0 += a[r0 + j] * xj;
+                    s1 += a[r1 + j] * xj;
+                    s2 += a[r2 + j] * xj;
+                    s3 += a[r3 + j] * xj;
+                }
+                y[yOff + i] += s0;
+                y[yOff + i + 1] += s1;
+                y[yOff + i + 2] += s2;
+                y[yOff + i + 3] += s3;
+            }
+            for (; i < rows; i++) {
+                int r = i * cols;
+                double acc = 0.0;
+                for (int j = j0; j < j1; j++) acc += a[r + j] * x[xOff + j];
+                y[yOff + i] += acc;
+            }
+        }
+    }
+
+    public static double[] add(double[] a, double[] b, double scale) {
+        double[] c = new double[a.length];
+        for (int i = 0; i < a.length; i++) c[i] = a[i] + scale * b[i];
+        return c;
+    }
+
+    public static double[] scale(double[] a, double scale) {
+        double[] c = new double[a.length];
+        for (int i = 0; i < a.length; i++) c[i] = a[i] * scale;
+        return c;
+    }
+
+    public static double norm1(double[] a, int n) {
+        double max = 0.0;
+        for (int j = 0; j < n; j++) {
+            double sum = 0.0;
+            for (int i = 0; i < n; i++) sum += Math.abs(a[i * n + j]);
+            if (sum > max) max = sum;
+        }
+        return max;
+    }
+
+    // In-place LU factorization with partial pivoting. Returns the row permutation.
+    public static int[] luDecompose(double[] a, int n) {
+        int[] piv = new int[n];
+        for (int i = 0; i < n; i++) piv[i] = i;
+
+        for (int k = 0; k < n; k++) {
+            int p = k;
+            double max = Math.abs(a[k * n + k]);
+            for (int i = k + 1; i < n; i++) {
+                double v = Math.abs(a[i * n + k]);
+                if (v > max) {
+                    max = v;
+                    p = i;
+                }
+            }
+            if (max == 0) throw new ArithmeticException("Matrix is singular");
+
+            if (p != k) {
+                for (int j = 0; j < n; j++) {
+                    double t = a[k * n + j];
+                    a[k * n + j] = a[p * n + j];
+                    a[p * n + j] = t;
+                }
+                int t = piv[k];
+                piv[k] = piv[p];
+                piv[p] = t;
+            }
+
+            double pivot = a[k * n + k];
+            for (int i = k + 1; i < n; i++) {
+                double f = a[i * n + k] / pivot;
+                a[i * n + k] = f;
+                if (f == 0) continue;
+                for (int j = k + 1; j < n; j++) {
+                    a[i * n + j] -= f * a[k * n + j];
+                }
+            }
+        }
+        return piv;
+    }
+
+    // Solve LU x = P b using the factors from luDecompose. b and x must be distinct arrays.
+    public static void luSolve(double[] lu, int[] piv, double[] b, double[] x, int n) {
+        for (int i = 0; i < n; i++) {
+            double acc = b[piv[i]];
+            for (int j = 0; j < i; j++) acc -= lu[i * n + j] * x[j];
+            x[i] = acc;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double acc = x[i];
+            for (int j = i + 1; j < n; j++) acc -= lu[i * n + j] * x[j];
+            x[i] = acc / lu[i * n + i];
+        }
+    }
+
+    // Solve A X = B for a square right-hand side matrix B
+    public static double[] solve(double[] a, double[] b, int n) {
+        double[] lu = a.clone();
+        int[] piv = luDecompose(lu, n);
+        double[] x = new double[n * n];
+        double[] col = new double[n];
+        double[] sol = new double[n];
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i < n; i++) col[i] = b[i * n + j];
+            luSolve(lu, piv, col, sol, n);
+            for (int i = 0; i < n; i++) x[i * n + j] = sol[i];
+        }
+        return x;
+    }
+
+    public static double[] solveVector(double[] a, double[] b, int n) {
+        double[] lu = a.clone();
+        int[] piv = luDecompose(lu, n);
+        double[] x = new double[n];
+        luSolve(lu, piv, b, x, n);
+        return x;
+    }
+
+    // Matrix exponential by scaling and squaring with a [6/6] Pade approximant
+    public static double[] expm(double[] a, int n) {
+        if (n == 0) return new double[0];
+        double norm = norm1(a, n);
+        int s = norm > 0.5 ? (int) Math.ceil(Math.log(norm / 0.5) / Math.log(2)) : 0;
+        double[] as = scale(a, 1.0 / Math.pow(2, s));
+
+        int q = 6;
+        double c = 1.0;
+        double[] N = identity(n);
+        double[] D = identity(n);
+        double[] X = identity(n);
+        for (int k = 1; k <= q; k++) {
+            c = c * (q - k + 1) / (k * (2.0 * q - k + 1));
+            X = multiply(as, X, n);
+            N = add(N, X, c);
+            D = add(D, X, (k % 2 == 0) ? c : -c);
+        }
+
+        double[] E = solve(D, N, n);
+        for (int k = 0; k < s; k++) {
+            E = multiply(E, E, n);
+        }
+        return E;
+    }
+}
@@ -0,0 +1,134 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide metrics registry: named counters and latency histograms, plus JFR events for the
+// simulate and paint paths. Everything is off unless enabled (system property
+// transferfunction.metrics=true or setEnabled), and then costs a few nanoseconds per simulate
+// call or repaint; nothing is recorded per sample.
+public class Metrics {
+    private static volatile boolean enabled = Boolean.getBoolean("transferfunction.metrics");
+
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private Metrics() {}
+
+    public static boolean isEnabled() { return enabled; }
+
+    public static void setEnabled(boolean on) { enabled = on; }
+
+    public static LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    public static void reset() {
+        counters.values().forEach(LongAdder::reset);
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    // Instrumented Simulator.simulate: times model construction (from buildStart, a System.nanoTime
+    // taken before the simulator was built), output allocation and integration separately
+    static double[] simulate(Simulator sim, double[] input, String engine, long buildStart) {
+        long built = System.nanoTime();
+        double[] output = new double[input.length];
+        long allocated = System.nanoTime();
+        sim.process(input, 0, output, 0, input.length);
+        long done = System.nanoTime();
+        record(sim, engine, input.length, buildStart, built, allocated, done);
+        return output;
+    }
+
+    // As above for Simulator.simulate(Signal, int); the integration time includes filling the input blocks
+    static double[] simulate(Simulator sim, Signal input, int samples, String engine, long buildStart) {
+        long built = System.nanoTime();
+        double[] output = new double[samples];
+        double[] block = new double[Math.min(samples, StreamSimulator.DEFAULT_BLOCK)];
+        long allocated = System.nanoTime();
+        for (int done = 0; done < samples; done += block.length) {
+            int len = Math.min(block.length, samples - done);
+            input.fill(done, sim.dt(), block, 0, len);
+            sim.process(block, 0, output, done, len);
+        }
+        long done = System.nanoTime();
+        record(sim, engine, samples, buildStart, built, allocated, done);
+        return output;
+    }
+
+    private static void record(Simulator sim, String engine, int samples, long buildStart, long built, long allocated, long done) {
+        long steps = samples;
+        if (sim instanceof AdaptiveSimulator) {
+            AdaptiveSimulator a = (AdaptiveSimulator) sim;
+            steps = a.getAcceptedSteps() + a.getRejectedSteps();
+        }
+        double samplesPerSecond = samples / Math.max(1e-9, (done - allocated) / 1e9);
+
+        counter("simulate.calls").increment();
+        counter("simulate.samples").add(samples);
+        counter("simulate.steps").add(steps);
+        histogram("simulate.build").record(built - buildStart);
+        histogram("simulate.allocate").record(allocated - built);
+        histogram("simulate.integrate").record(done - allocated);
+
+        SimulationEvent event = new SimulationEvent();
+        if (event.shouldCommit()) {
+            event.engine = engine;
+            event.order = sim.order();
+            event.samples = samples;
+            event.steps = steps;
+            event.buildTime = built - buildStart;
+            event.allocateTime = allocated - built;
+            event.integrateTime = done - allocated;
+            event.samplesPerSecond = samplesPerSecond;
+            event.commit();
+        }
+    }
+
+    static void paint(long start, long drawn, long skipped, int series, boolean background) {
+        long elapsed = System.nanoTime() - start;
+        histogram(background ? "plot.layer" : "plot.paint").record(elapsed);
+        counter("plot.points.drawn").add(drawn);
+        counter("plot.points.skipped").add(skipped);
+
+        PaintEvent event = new PaintEvent();
+        if (event.shouldCommit()) {
+            event.paintTime = elapsed;
+            event.pointsDrawn = drawn;
+            event.pointsSkipped = skipped;
+            event.series = series;
+            event.background = background;
+            event.commit();
+        }
+    }
+
+    public static void dump(Writer writer) {
+        PrintWriter out = new PrintWriter(writer);
+        for (Map.Entry<String, LongAdder> e : new TreeMap<>(counters).entrySet()) {
+            out.printf("counter   %-24s %d%n", e.getKey(), e.getValue().sum());
+        }
+        for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(histograms).entrySet()) {
+            LatencyHistogram h = e.getValue();
+            out.printf("histogram %-24s count=%d mean=%.0f p50=%d p90=%d p99=%d p99.9=%d max=%d [ns]%n",
+                    e.getKey(), h.getCount(), h.getMean(), h.getPercentile(50), h.getPercentile(90),
+                    h.getPercentile(99), h.getPercentile(99.9), h.getMax());
+        }
+        out.flush();
+    }
+
+    public static void dump(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            dump(writer);
+        }
+    }
+}
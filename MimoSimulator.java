@@ -0,0 +1,84 @@
+// Discrete multi-input multi-output model x[k+1] = Ad x[k] + Bd u[k], y[k] = C x[k] + D u[k],
+// built by StateSpace. The four blocks are stored fused as one row-major matrix
+//   [[Ad, Bd], [C, D]]
+// so each sample is a single pass of Matrices.multiply over [x; u] yielding [x[k+1]; y[k]].
+// Inputs and outputs are interleaved by frame: u[k] is in[k * inputs .. (k + 1) * inputs).
+public class MimoSimulator {
+    private final int n, m, p; // States, inputs, outputs
+    private final double dt; // [s]
+    private final double[] fused; // (n + p) x (n + m)
+
+    private final double[] z; // [x; u]
+    private final double[] r; // [x[k+1]; y]
+
+    public MimoSimulator(double[] ad, double[] bd, double[] c, double[] d, int n, int m, int p, double dt) {
+        if (ad.length != n * n || bd.length != n * m || c.length != p * n || d.length != p * m) {
+            throw new IllegalArgumentException("Matrix sizes do not match " + n + " states, " + m + " inputs, " + p + " outputs");
+        }
+        this.n = n;
+        this.m = m;
+        this.p = p;
+        this.dt = dt;
+        int cols = n + m;
+        this.fused = new double[(n + p) * cols];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(ad, i * n, fused, i * cols, n);
+            System.arraycopy(bd, i * m, fused, i * cols + n, m);
+        }
+        for (int i = 0; i < p; i++) {
+            System.arraycopy(c, i * n, fused, (n + i) * cols, n);
+            System.arraycopy(d, i * m, fused, (n + i) * cols + n, m);
+        }
+        this.z = new double[n + m];
+        this.r = new double[n + p];
+    }
+
+    // Shares the fused matrix of proto, with its own zeroed state
+    private MimoSimulator(MimoSimulator proto) {
+        this.n = proto.n;
+        this.m = proto.m;
+        this.p = proto.p;
+        this.dt = proto.dt;
+        this.fused = proto.fused;
+        this.z = new double[n + m];
+        this.r = new double[n + p];
+    }
+
+    public MimoSimulator fresh() { return new MimoSimulator(this); }
+
+    public int order() { return this.n; }
+    public int inputs() { return this.m; }
+    public int outputs() { return this.p; }
+    public double dt() { return this.dt; }
+
+    public void reset() {
+        for (int i = 0; i < n; i++) z[i] = 0.0;
+    }
+
+    public void getState(double[] dst) { System.arraycopy(z, 0, dst, 0, n); }
+
+    public void setState(double[] src) { System.arraycopy(src, 0, z, 0, n); }
+
+    // One frame: inputs from u[uOff ..], outputs to y[yOff ..]
+    public void step(double[] u, int uOff, double[] y, int yOff) {
+        System.arraycopy(u, uOff, z, n, m);
+        Matrices.multiply(fused, n + p, n + m, z, 0, r, 0);
+        System.arraycopy(r, 0, z, 0, n);
+        System.arraycopy(r, n, y, yOff, p);
+    }
+
+    // frames interleaved frames of input from in[inOff ..] to out[outOff ..]
+    public void process(double[] in, int inOff, double[] out, int outOff, int frames) {
+        for (int k = 0; k < frames; k++) {
+            step(in, inOff + k * m, out, outOff + k * p);
+        }
+    }
+
+    public double[] simulate(double[] in) {
+        if (m == 0 || in.length % m != 0) throw new IllegalArgumentException("Input length " + in.length + " is not a whole number of " + m + "-channel frames");
+        int frames = in.length / m;
+        double[] out = new double[frames * p];
+        process(in, 0, out, 0, frames);
+        return out;
+    }
+}
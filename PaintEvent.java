@@ -0,0 +1,31 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// JFR event for one Plot repaint or background data layer render, committed by Metrics when enabled
+@Name("transferfunction.Paint")
+@Label("Plot Paint")
+@Category({"Transfer Function", "Plot"})
+@Description("One Plot repaint on the EDT or data layer render on the render thread")
+public class PaintEvent extends jdk.jfr.Event {
+    @Label("Paint Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long paintTime;
+
+    @Label("Points Drawn")
+    @Description("Vertices sent to the canvas, including min/max envelope vertices")
+    long pointsDrawn;
+
+    @Label("Points Skipped")
+    @Description("Samples outside the visible range or folded into the envelope")
+    long pointsSkipped;
+
+    @Label("Series")
+    int series;
+
+    @Label("Background")
+    @Description("Rendered into the cached data layer off the EDT")
+    boolean background;
+}
@@ -0,0 +1,227 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+// Runs one simulation per parameter point across all cores. Each point is reduced to
+// ResponseMetrics while it runs, so memory does not grow with the length of the input.
+public class ParameterSweep {
+    private static final int LEAF_SIZE = 16; // Points simulated per fork-join leaf
+
+    private final double[][] grid; // Axis values for a full-factorial grid, or null
+    private final double[] nominal; // Monte Carlo nominal values, or null
+    private final double[] tolerance; // Monte Carlo relative tolerances (uniform +/-)
+    private final int samples;
+    private final long seed;
+
+    private Function<double[], TransferFunction> model = p -> TransferFunction.massSpringDamper(p[0], p[1], p[2]);
+    private Solver solver = Solver.RK4;
+    private double settlingTolerance = 0.02;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    public static class Result {
+        private final double[] params;
+        private final ResponseMetrics metrics;
+
+        private Result(double[] params, ResponseMetrics metrics) {
+            this.params = params;
+            this.metrics = metrics;
+        }
+
+        public double[] getParams() { return this.params; }
+
+        public ResponseMetrics getMetrics() { return this.metrics; }
+    }
+
+    // Min/max/mean of each metric over the whole sweep, mergeable across tasks
+    public static class Summary {
+        private long points;
+        private final double[] min = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        private final double[] max = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        private final double[] sum = new double[4];
+        private double[] worstParams; // Parameters with the largest peak
+
+        private void add(double[] params, ResponseMetrics m) {
+            double[] v = {m.getPeak(), m.getSettlingTime(), m.getRms(), m.getOvershoot()};
+            for (int i = 0; i < v.length; i++) {
+                if (Double.isNaN(v[i])) continue;
+                if (v[i] < min[i]) min[i] = v[i];
+                if (v[i] > max[i]) {
+                    max[i] = v[i];
+                    if (i == 0) worstParams = params;
+                }
+                sum[i] += v[i];
+            }
+            points++;
+        }
+
+        private Summary merge(Summary o) {
+            for (int i = 0; i < sum.length; i++) {
+                if (o.min[i] < min[i]) min[i] = o.min[i];
+                if (o.max[i] > max[i]) {
+                    max[i] = o.max[i];
+                    if (i == 0) worstParams = o.worstParams;
+                }
+                sum[i] += o.sum[i];
+            }
+            points += o.points;
+            return this;
+        }
+
+        public long getPoints() { return this.points; }
+        public double getMaxPeak() { return this.max[0]; }
+        public double getMeanPeak() { return this.sum[0] / points; }
+        public double getMinSettlingTime() { return this.min[1]; }
+        public double getMaxSettlingTime() { return this.max[1]; }
+        public double getMeanSettlingTime() { return this.sum[1] / points; }
+        public double getMaxRms() { return this.max[2]; }
+        public double getMeanRms() { return this.sum[2] / points; }
+        public double getMaxOvershoot() { return this.max[3]; }
+        public double[] getWorstParams() { return this.worstParams; }
+
+        public String toString() {
+            return points + " points: peak max " + max[0] + " mean " + getMeanPeak()
+                    + ", settling " + min[1] + ".." + max[1] + " s, rms max " + max[2];
+        }
+    }
+
+    private ParameterSweep(double[][] grid, double[] nominal, double[] tolerance, int samples, long seed) {
+        this.grid = grid;
+        this.nominal = nominal;
+        this.tolerance = tolerance;
+        this.samples = samples;
+        this.seed = seed;
+    }
+
+    // Full-factorial grid, e.g. grid(ms, cs, ks) for the mass-spring-damper model
+    public static ParameterSweep grid(double[]... axes) {
+        return new ParameterSweep(axes, null, null, 0, 0);
+    }
+
+    // Uniformly randomized parameters within nominal * (1 +/- tolerance)
+    public static ParameterSweep monteCarlo(double[] nominal, double[] tolerance, int samples, long seed) {
+        return new ParameterSweep(null, nominal, tolerance, samples, seed);
+    }
+
+    public void setModel(Function<double[], TransferFunction> model) { this.model = model; }
+
+    public void setSolver(Solver solver) { this.solver = solver; }
+
+    public void setSettlingTolerance(double settlingTolerance) { this.settlingTolerance = settlingTolerance; }
+
+    public void setPool(ForkJoinPool pool) { this.pool = pool; }
+
+    public int size() {
+        if (grid == null) return samples;
+        int size = 1;
+        for (double[] axis : grid) size *= axis.length;
+        return size;
+    }
+
+    public Result[] run(double[] input, double dt) {
+        Result[] results = new Result[size()];
+        pool.invoke(new RunTask(input, dt, 0, results.length, new SplittableRandom(seed), results));
+        return results;
+    }
+
+    // Like run, but keeps only the aggregate so memory stays flat for any number of points
+    public Summary summarize(double[] input, double dt) {
+        return pool.invoke(new SummaryTask(input, dt, 0, size(), new SplittableRandom(seed)));
+    }
+
+    private double[] point(int index, SplittableRandom random) {
+        if (grid != null) {
+            double[] p = new double[grid.length];
+            for (int a = grid.length - 1; a >= 0; a--) {
+                p[a] = grid[a][index % grid[a].length];
+                index /= grid[a].length;
+            }
+            return p;
+        }
+        double[] p = new double[nominal.length];
+        for (int i = 0; i < p.length; i++) {
+            p[i] = nominal[i] * (1 + tolerance[i] * (2 * random.nextDouble() - 1));
+        }
+        return p;
+    }
+
+    private ResponseMetrics simulate(double[] params, double[] input, double dt) {
+        TransferFunction tf = model.apply(params);
+        Simulator sim = tf.simulator(dt, solver);
+        double last = input.length == 0 ? 0.0 : input[input.length - 1];
+        ResponseMetrics metrics = new ResponseMetrics(dt, tf.dcGain() * last, settlingTolerance);
+        for (double u : input) {
+            metrics.accept(sim.step(u));
+        }
+        return metrics;
+    }
+
+    private class RunTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] input;
+        private final double dt;
+        private final int from, to;
+        private final SplittableRandom random;
+        private final Result[] results;
+
+        RunTask(double[] input, double dt, int from, int to, SplittableRandom random, Result[] results) {
+            this.input = input;
+            this.dt = dt;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    double[] p = point(i, random);
+                    results[i] = new Result(p, simulate(p, input, dt));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RunTask(input, dt, from, mid, random.split(), results),
+                      new RunTask(input, dt, mid, to, random.split(), results));
+        }
+    }
+
+    private class SummaryTask extends RecursiveTask<Summary> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] input;
+        private final double dt;
+        private final int from, to;
+        private final SplittableRandom random;
+
+        SummaryTask(double[] input, double dt, int from, int to, SplittableRandom random) {
+            this.input = input;
+            this.dt = dt;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected Summary compute() {
+            if (to - from <= LEAF_SIZE) {
+                Summary summary = new Summary();
+                for (int i = from; i < to; i++) {
+                    double[] p = point(i, random);
+                    summary.add(p, simulate(p, input, dt));
+                }
+                return summary;
+            }
+            int mid = (from + to) >>> 1;
+            SummaryTask left = new SummaryTask(input, dt, from, mid, random.split());
+            SummaryTask right = new SummaryTask(input, dt, mid, to, random.split());
+            left.fork();
+            Summary r = right.compute();
+            return left.join().merge(r);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Time-parallel simulation of one long input. The time axis is cut into segments that are
+// integrated concurrently with the fine RK4 simulator; what makes that possible is knowing each
+// segment's start state before the segments before it have run. Two ways to get it:
+//   simulate:     parareal. A cheap coarse propagator (trapezoidal at coarseRatio * dt, input
+//                 averaged over each coarse step) guesses the start states, and each iteration
+//                 runs all unsettled segments finely and corrects the guesses with
+//                 U[j+1] = G(U'[j]) + F(U[j]) - G(U[j]). After k iterations the first k segments
+//                 are exact; it stops once no start state moves by more than the tolerance.
+//   simulateScan: exact for linear time-invariant models. Each segment is run from zero state
+//                 to get its forced end state z[j]; with P the one-step RK4 transition matrix and
+//                 L the segment length, the start states follow from the scan
+//                 X[j+1] = P^L X[j] + z[j], and a second parallel pass writes the outputs.
+// Either way the fine work is spread over the pool, so a single run scales with cores at the
+// price of about twice (scan) or k + 1 times (parareal) the serial arithmetic.
+public class PararealSimulator {
+    private static final int MIN_SEGMENT = 4096; // Samples; shorter inputs run serially
+
+    private final int n; // Order of the system
+    private final double dt; // [s]
+    private final CompiledSimulator fine;
+    private final TransferFunction tf;
+
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int segments; // 0: one per pool thread
+    private int coarseRatio = 16; // Fine steps per coarse step
+    private double tolerance = 1e-10; // Relative to the largest state magnitude
+    private int maxIterations = 50;
+    private int iterations; // Fine sweeps in the last run
+
+    public PararealSimulator(TransferFunction tf, double dt) {
+        this.tf = tf;
+        this.dt = dt;
+        this.fine = tf.compile(dt);
+        this.n = fine.order();
+    }
+
+    public void setPool(ForkJoinPool pool) { this.pool = pool; }
+
+    public void setSegments(int segments) {
+        if (segments < 0) throw new IllegalArgumentException("Segments must be non-negative: " + segments);
+        this.segments = segments;
+    }
+
+    public void setCoarseRatio(int coarseRatio) {
+        if (coarseRatio < 1) throw new IllegalArgumentException("Coarse ratio must be at least 1: " + coarseRatio);
+        this.coarseRatio = coarseRatio;
+    }
+
+    public void setTolerance(double tolerance) { this.tolerance = tolerance; }
+
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 1) throw new IllegalArgumentException("Max iterations must be at least 1: " + maxIterations);
+        this.maxIterations = maxIterations;
+    }
+
+    public int getIterations() { return this.iterations; }
+
+    public double dt() { return this.dt; }
+
+    // Segment count for this input, and the segment length rounded up to whole coarse steps
+    private int segmentCount(int samples, int align) {
+        int wanted = segments > 0 ? segments : pool.getParallelism();
+        int count = Math.max(1, Math.min(wanted, samples / MIN_SEGMENT));
+        int length = segmentLength(samples, count, align);
+        return (samples + length - 1) / length;
+    }
+
+    private static int segmentLength(int samples, int count, int align) {
+        int length = (samples + count - 1) / count;
+        return (length + align - 1) / align * align;
+    }
+
+    public double[] simulate(double[] input) {
+        double[] output = new double[input.length];
+        int count = segmentCount(input.length, coarseRatio);
+        if (count == 1) {
+            iterations = 1;
+            return fine.fresh().simulate(input);
+        }
+        int length = segmentLength(input.length, count, coarseRatio);
+        ImplicitSimulator coarse = new ImplicitSimulator(tf, coarseRatio * dt, ImplicitSimulator.Method.TRAPEZOIDAL);
+
+        double[][] start = new double[count][n]; // U[j]
+        double[][] fineEnd = new double[count][n]; // F(U[j])
+        double[][] coarseEnd = new double[count][n]; // G(U[j])
+        for (int j = 0; j < count - 1; j++) {
+            coarse(coarse, input, j, length, start[j], coarseEnd[j]);
+            System.arraycopy(coarseEnd[j], 0, start[j + 1], 0, n);
+        }
+
+        double[] guess = new double[n];
+        iterations = 0;
+        for (int first = 0; ; first++) {
+            pool.invoke(new SegmentTask(input, length, first, count, start, fineEnd, output));
+            iterations++;
+            if (first >= count - 1 || iterations >= maxIterations) break;
+
+            // Segment first is now exact, so its successor's start is its fine end state
+            double delta = 0.0, scale = 1.0;
+            for (int j = first; j < count - 1; j++) {
+                coarse(coarse, input, j, length, start[j], guess);
+                for (int i = 0; i < n; i++) {
+                    double next = guess[i] + fineEnd[j][i] - coarseEnd[j][i];
+                    delta = Math.max(delta, Math.abs(next - start[j + 1][i]));
+                    scale = Math.max(scale, Math.abs(next));
+                    start[j + 1][i] = next;
+                }
+                System.arraycopy(guess, 0, coarseEnd[j], 0, n);
+            }
+            if (delta <= tolerance * scale) break;
+        }
+        return output;
+    }
+
+    public double[] simulateScan(double[] input) {
+        double[] output = new double[input.length];
+        int count = segmentCount(input.length, 1);
+        iterations = 1;
+        if (count == 1) return fine.fresh().simulate(input);
+        int length = segmentLength(input.length, count, 1);
+
+        // Forced end states from zero, then the scan, then the outputs from the true starts
+        double[][] start = new double[count][n];
+        double[][] forced = new double[count][n];
+        pool.invoke(new SegmentTask(input, length, 0, count - 1, start, forced, null));
+        double[] pl = power(transition(), length);
+        for (int j = 0; j < count - 1; j++) {
+            Matrices.multiply(pl, start[j], start[j + 1], n);
+            for (int i = 0; i < n; i++) start[j + 1][i] += forced[j][i];
+        }
+        pool.invoke(new SegmentTask(input, length, 0, count, start, null, output));
+        return output;
+    }
+
+    // One-step transition matrix of the fine simulator at zero input, column by column
+    private double[] transition() {
+        double[] p = new double[n * n];
+        double[] e = new double[n];
+        double[] col = new double[n];
+        Simulator sim = fine.fresh();
+        for (int j = 0; j < n; j++) {
+            e[j] = 1.0;
+            sim.setState(e);
+            sim.step(0.0);
+            sim.getState(col);
+            for (int i = 0; i < n; i++) p[i * n + j] = col[i];
+            e[j] = 0.0;
+        }
+        return p;
+    }
+
+    // m^k by repeated squaring
+    private double[] power(double[] m, long k) {
+        double[] result = Matrices.identity(n);
+        double[] base = m;
+        while (k > 0) {
+            if ((k & 1) != 0) result = Matrices.multiply(result, base, n);
+            k >>= 1;
+            if (k > 0) base = Matrices.multiply(base, base, n);
+        }
+        return result;
+    }
+
+    private void coarse(ImplicitSimulator coarse, double[] input, int j, int length, double[] from, double[] to) {
+        int lo = j * length, hi = Math.min(input.length, lo + length);
+        coarse.setState(from);
+        for (int i = lo; i < hi; i += coarseRatio) {
+            int stop = Math.min(hi, i + coarseRatio);
+            double sum = 0.0;
+            for (int k = i; k < stop; k++) sum += input[k];
+            coarse.step(sum / (stop - i));
+        }
+        coarse.getState(to);
+    }
+
+    // Runs segments [from, to) with the fine simulator from start[j]. Writes end states to end[j]
+    // and outputs to output when those are non-null.
+    private class SegmentTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] input;
+        private final int length;
+        private final int from, to;
+        private final double[][] start, end;
+        private final double[] output;
+
+        SegmentTask(double[] input, int length, int from, int to, double[][] start, double[][] end, double[] output) {
+            this.input = input;
+            this.length = length;
+            this.from = from;
+            this.to = to;
+            this.start = start;
+            this.end = end;
+            this.output = output;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                int lo = from * length, hi = Math.min(input.length, lo + length);
+                Simulator sim = fine.fresh();
+                sim.setState(start[from]);
+                if (output != null) {
+                    sim.process(input, lo, output, lo, hi - lo);
+                } else {
+                    for (int i = lo; i < hi; i++) sim.step(input[i]);
+                }
+                if (end != null) sim.getState(end[from]);
+                return;
+            }
+            if (to <= from) return;
+            int mid = (from + to) >>> 1;
+            invokeAll(new SegmentTask(input, length, from, mid, start, end, output),
+                      new SegmentTask(input, length, mid, to, start, end, output));
+        }
+    }
+}
@@ -5,16 +5,16 @@ import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
-import java.awt.geom.Line2D;
-import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Plot extends JPanel implements MouseWheelListener, MouseListener, MouseMotionListener {
-    private final List<double[]> xDataList = new ArrayList<>();
-    private final List<double[]> yDataList = new ArrayList<>();
-    private final List<Color> colors = new ArrayList<>();
-    private final List<String> labels = new ArrayList<>();
+    private final List<PlotSeries> series = new ArrayList<>();
     private final int padding = 70;
     private final int pointRadius = 2;
     private final int tickLength = 5;
@@ -29,6 +29,63 @@ public class Plot extends JPanel implements MouseWheelListener, MouseListener, M
     private Point lastMousePoint; // Last mouse position for dragging
     private boolean showGrid = true; // Toggle grid lines
 
+    // Series with more points than this in total are rendered off the EDT
+    static final int BACKGROUND_THRESHOLD = 200_000;
+
+    static final long SYNC = -1; // Render generation of synchronous draws
+    static final int CHUNK = 1 << 16; // Points transformed per drawPolyline call
+    static final double MARKER_SPACING = 6.0; // Markers are dropped when points are closer than this [px]
+
+    // Pixel coordinates reused across frames, one set per drawing thread (EDT, render thread,
+    // export pool workers)
+    private static final class PixelBuffer {
+        final int[] x = new int[CHUNK + 1];
+        final int[] y = new int[CHUNK + 1];
+        long drawn, skipped; // Points of the last plotData call on this thread, for Metrics
+    }
+    private static final ThreadLocal<PixelBuffer> buffers = ThreadLocal.withInitial(PixelBuffer::new);
+
+    static final double HOVER_RADIUS = 10.0; // Pointer distance for picking a data point [px]
+
+    // A data point under the pointer or pinned by a click
+    private static final class DataCursor {
+        final PlotSeries series;
+        final double x, y;
+
+        DataCursor(PlotSeries series, double x, double y) {
+            this.series = series;
+            this.x = x;
+            this.y = y;
+        }
+    }
+    private DataCursor hover;
+    private final List<DataCursor> pinned = new ArrayList<>();
+
+    static final int FRAME_RATE = 60; // Repaints per second while streaming series are live
+
+    private final List<StreamingSeries> streams = new ArrayList<>();
+    private Timer frameTimer; // Drains streams and repaints at most once per frame
+
+    // One render thread shared by all plots; a newer request for a plot cancels its older one
+    private static final ExecutorService renderer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "plot-render");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Cached data layer and the viewport and data version it was rendered for
+    private BufferedImage layer;
+    private Viewport layerView;
+    private long layerVersion = -1;
+    private Viewport pendingView; // Viewport of the render in flight
+    private long pendingVersion = -1;
+    private Future<?> pendingRender;
+    private final AtomicLong renderGeneration = new AtomicLong();
+    private long dataVersion; // Bumped whenever series are added or appended to
+
+    // Union of the series bounds, refreshed from the per-series bounds when data changes
+    private double dataXMin, dataXMax, dataYMin, dataYMax;
+
     public Plot() {
         this.xlabel = "";
         this.ylabel = "";
@@ -38,187 +95,271 @@ public class Plot extends JPanel implements MouseWheelListener, MouseListener, M
     }
 
     public void add(double[] xData, double[] yData, Color color, String label) {
-        xDataList.add(xData);
-        yDataList.add(yData);
-        colors.add(color);
-        labels.add(label);
+        add(new PlotSeries(xData, yData, color, label));
+    }
+
+    public void add(PlotSeries s) {
+        series.add(s);
+        updateBounds();
+        repaint();
+    }
+
+    // Append points to an existing series; only the new points are scanned for bounds
+    public void append(int seriesIndex, double[] xData, double[] yData) {
+        series.get(seriesIndex).append(xData, yData);
+        updateBounds();
+        repaint();
+    }
+
+    // Live series: producers append from any thread, the plot picks the samples up once per frame
+    public void addStreaming(StreamingSeries s) {
+        streams.add(s);
+        add(s.getSeries());
+        if (frameTimer == null) {
+            frameTimer = new Timer(1000 / FRAME_RATE, e -> drainStreams());
+            frameTimer.setCoalesce(true);
+            frameTimer.start();
+        }
+    }
+
+    private void drainStreams() {
+        int drained = 0;
+        for (StreamingSeries s : streams) drained += s.drain();
+        if (drained > 0) {
+            updateBounds();
+            repaint();
+        }
+    }
+
+    public List<PlotSeries> getSeries() { return this.series; }
+
+    private void updateBounds() {
+        dataVersion++;
+        dataXMin = Double.POSITIVE_INFINITY;
+        dataXMax = Double.NEGATIVE_INFINITY;
+        dataYMin = Double.POSITIVE_INFINITY;
+        dataYMax = Double.NEGATIVE_INFINITY;
+        for (PlotSeries s : series) {
+            if (s.size() == 0) continue;
+            dataXMin = Math.min(dataXMin, s.getXMin());
+            dataXMax = Math.max(dataXMax, s.getXMax());
+            dataYMin = Math.min(dataYMin, s.getYMin());
+            dataYMax = Math.max(dataYMax, s.getYMax());
+        }
+    }
+
+    // Transform for the current size, zoom and pan
+    public Viewport getViewport() {
+        return getViewport(getWidth(), getHeight());
+    }
+
+    public Viewport getViewport(int width, int height) {
+        return Viewport.of(dataXMin, dataXMax, dataYMin, dataYMax, zoomFactor, xOffset, yOffset, width, height, padding);
     }
 
     @Override
     protected void paintComponent(Graphics g) {
+        long start = Metrics.isEnabled() ? System.nanoTime() : 0;
         super.paintComponent(g);
         Graphics2D g2 = (Graphics2D) g;
 
         // Set up rendering hints for better quality
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
+        Viewport view = getViewport();
+        PlotCanvas canvas = new Graphics2DCanvas(g2);
+
         // Draw grid lines (if enabled)
         if (showGrid) {
-            drawGrid(g2);
+            drawGrid(canvas, view);
         }
 
         // Draw axes
-        drawAxes(g2);
+        drawAxes(canvas, view);
 
         // Plot the data points and lines
-        plotData(g2);
+        PixelBuffer buf = buffers.get();
+        buf.drawn = buf.skipped = 0;
+        if (totalPoints() <= BACKGROUND_THRESHOLD) {
+            plotVisible(canvas, view);
+        } else {
+            drawDataLayer(g2, view);
+        }
 
         // Draw legend
-        drawLegend(g2);
-    }
+        drawLegend(canvas, view);
 
-    private void drawGrid(Graphics2D g2) {
-        int width = getWidth();
-        int height = getHeight();
+        // Draw data cursors
+        for (DataCursor c : pinned) drawCursor(canvas, view, c);
+        if (hover != null) drawCursor(canvas, view, hover);
 
-        // Find min and max values for scaling
-        double xMin = Double.MAX_VALUE;
-        double xMax = Double.MIN_VALUE;
-        double yMin = Double.MAX_VALUE;
-        double yMax = Double.MIN_VALUE;
+        if (Metrics.isEnabled()) Metrics.paint(start, buf.drawn, buf.skipped, series.size(), false);
+    }
 
-        for (double[] xData : xDataList) {
-            for (double x : xData) {
-                if (x < xMin) xMin = x;
-                if (x > xMax) xMax = x;
-            }
+    // Draw the whole figure synchronously at the given size. Needs no window, so it works off the
+    // EDT and with java.awt.headless=true; see PlotExporter.
+    public void render(PlotCanvas canvas, int width, int height) {
+        Viewport view = getViewport(width, height);
+        if (showGrid) {
+            drawGrid(canvas, view);
         }
-        for (double[] yData : yDataList) {
-            for (double y : yData) {
-                if (y < yMin) yMin = y;
-                if (y > yMax) yMax = y;
+        drawAxes(canvas, view);
+        plotVisible(canvas, view);
+        drawLegend(canvas, view);
+        for (DataCursor c : pinned) drawCursor(canvas, view, c);
+        drawTitle(canvas, view);
+    }
+
+    public BufferedImage render(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        g2.setColor(Color.WHITE);
+        g2.fillRect(0, 0, width, height);
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        if (getFont() != null) g2.setFont(getFont());
+        render(new Graphics2DCanvas(g2), width, height);
+        g2.dispose();
+        return image;
+    }
+
+    public SvgCanvas renderSvg(int width, int height) {
+        SvgCanvas canvas = new SvgCanvas(width, height, getFont());
+        render(canvas, width, height);
+        return canvas;
+    }
+
+    private void plotVisible(PlotCanvas canvas, Viewport view) {
+        canvas.pushClip(padding, padding, view.getWidth() - 2 * padding, view.getHeight() - 2 * padding);
+        plotData(canvas, view, SYNC, snapshots());
+        canvas.popClip();
+    }
+
+    // Marker on the point and an "x, y" readout box next to it
+    private void drawCursor(PlotCanvas canvas, Viewport view, DataCursor c) {
+        int px = (int) view.toPixelX(c.x);
+        int py = (int) view.toPixelY(c.y);
+        String label = formatNumber(c.x, view.getXRange()) + ", " + formatNumber(c.y, view.getYRange());
+        int labelWidth = canvas.stringWidth(label);
+
+        canvas.setColor(Color.BLACK);
+        canvas.fillMarker(px, py, pointRadius + 2);
+        canvas.setColor(c.series.getColor());
+        canvas.fillMarker(px, py, pointRadius + 1);
+
+        // Keep the box inside the component
+        int boxX = Math.min(px + 8, view.getWidth() - labelWidth - 12);
+        int boxY = Math.max(py - 26, 0);
+        canvas.setColor(new Color(255, 255, 255, 220));
+        canvas.fillRect(boxX, boxY, labelWidth + 8, 18);
+        canvas.setColor(Color.BLACK);
+        canvas.drawString(label, boxX + 4, boxY + 13);
+    }
+
+    // Closest point of any series within HOVER_RADIUS of the pointer, or null
+    private DataCursor pick(Viewport view, int px, int py) {
+        DataCursor best = null;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (PlotSeries s : series) {
+            int i = s.getIndex().nearest(view, px, py, HOVER_RADIUS);
+            if (i < 0) continue;
+            double dx = view.toPixelX(s.getXData()[i]) - px;
+            double dy = view.toPixelY(s.getYData()[i]) - py;
+            double d = dx * dx + dy * dy;
+            if (d < bestDistance) {
+                bestDistance = d;
+                best = new DataCursor(s, s.getXData()[i], s.getYData()[i]);
             }
         }
+        return best;
+    }
 
-        // Avoid division by zero in case of constant data
-        if (xMin == xMax) {
-            xMin -= 1;
-            xMax += 1;
-        }
-        if (yMin == yMax) {
-            yMin -= 1;
-            yMax += 1;
-        }
+    public void clearPins() {
+        pinned.clear();
+        repaint();
+    }
 
-        // Apply zoom factor and panning offsets
-        double xRange = (xMax - xMin) * zoomFactor;
-        double yRange = (yMax - yMin) * zoomFactor;
-        double xCenter = (xMin + xMax) / 2 + xOffset;
-        double yCenter = (yMin + yMax) / 2 + yOffset;
-        xMin = xCenter - xRange / 2;
-        xMax = xCenter + xRange / 2;
-        yMin = yCenter - yRange / 2;
-        yMax = yCenter + yRange / 2;
+    private void drawTitle(PlotCanvas canvas, Viewport view) {
+        if (title == null) return;
+        canvas.setColor(Color.BLACK);
+        canvas.drawString(title, (view.getWidth() - canvas.stringWidth(title)) / 2, padding / 2);
+    }
+
+    private void drawGrid(PlotCanvas canvas, Viewport view) {
+        int width = view.getWidth();
+        int height = view.getHeight();
 
         // Calculate the number of ticks
         int numTicks = 5;
-        double xStep = (xMax - xMin) / numTicks;
-        double yStep = (yMax - yMin) / numTicks;
+        double xStep = view.getXRange() / numTicks;
+        double yStep = view.getYRange() / numTicks;
 
         // Draw grid lines
-        g2.setColor(Color.LIGHT_GRAY);
+        canvas.setColor(Color.LIGHT_GRAY);
         for (int i = 0; i <= numTicks; i++) {
-            double xValue = xMin + i * xStep;
-            int xPixel = (int) (padding + (xValue - xMin) * (width - 2 * padding) / (xMax - xMin));
-            g2.drawLine(xPixel, padding, xPixel, height - padding);
+            int xPixel = (int) view.toPixelX(view.getXMin() + i * xStep);
+            canvas.drawLine(xPixel, padding, xPixel, height - padding);
 
-            double yValue = yMin + i * yStep;
-            int yPixel = (int) (height - padding - (yValue - yMin) * (height - 2 * padding) / (yMax - yMin));
-            g2.drawLine(padding, yPixel, width - padding, yPixel);
+            int yPixel = (int) view.toPixelY(view.getYMin() + i * yStep);
+            canvas.drawLine(padding, yPixel, width - padding, yPixel);
         }
     }
 
-    private void drawAxes(Graphics2D g2) {
-        int width = getWidth();
-        int height = getHeight();
+    private void drawAxes(PlotCanvas canvas, Viewport view) {
+        int width = view.getWidth();
+        int height = view.getHeight();
 
         // Draw x-axis
-        g2.setColor(Color.BLACK);
-        g2.drawLine(padding, height - padding, width - padding, height - padding);
+        canvas.setColor(Color.BLACK);
+        canvas.drawLine(padding, height - padding, width - padding, height - padding);
 
         // Draw y-axis
-        g2.drawLine(padding, padding, padding, height - padding);
+        canvas.drawLine(padding, padding, padding, height - padding);
 
         // Draw labels
-        g2.drawString(this.getXLabel(), width - padding + 10, height - padding);
-        g2.drawString(this.getYLabel(), padding, padding - 10);
+        canvas.drawString(this.getXLabel(), width - padding + 10, height - padding);
+        canvas.drawString(this.getYLabel(), padding, padding - 10);
 
         // Add numbers and ticks to the axes
-        addAxisNumbers(g2, width, height);
+        addAxisNumbers(canvas, view);
     }
 
-    private void addAxisNumbers(Graphics2D g2, int width, int height) {
-        // Find min and max values for scaling
-        double xMin = Double.MAX_VALUE;
-        double xMax = Double.MIN_VALUE;
-        double yMin = Double.MAX_VALUE;
-        double yMax = Double.MIN_VALUE;
-    
-        for (double[] xData : xDataList) {
-            for (double x : xData) {
-                if (x < xMin) xMin = x;
-                if (x > xMax) xMax = x;
-            }
-        }
-        for (double[] yData : yDataList) {
-            for (double y : yData) {
-                if (y < yMin) yMin = y;
-                if (y > yMax) yMax = y;
-            }
-        }
-    
-        // Avoid division by zero in case of constant data
-        if (xMin == xMax) {
-            xMin -= 1;
-            xMax += 1;
-        }
-        if (yMin == yMax) {
-            yMin -= 1;
-            yMax += 1;
-        }
-    
-        // Apply zoom factor and panning offsets
-        double xRange = (xMax - xMin) * zoomFactor;
-        double yRange = (yMax - yMin) * zoomFactor;
-        double xCenter = (xMin + xMax) / 2 + xOffset;
-        double yCenter = (yMin + yMax) / 2 + yOffset;
-        xMin = xCenter - xRange / 2;
-        xMax = xCenter + xRange / 2;
-        yMin = yCenter - yRange / 2;
-        yMax = yCenter + yRange / 2;
-    
+    private void addAxisNumbers(PlotCanvas canvas, Viewport view) {
+        int height = view.getHeight();
+        double xRange = view.getXRange();
+        double yRange = view.getYRange();
+
         // Calculate the number of ticks
         int numTicks = 5;
-        double xStep = (xMax - xMin) / numTicks;
-        double yStep = (yMax - yMin) / numTicks;
+        double xStep = xRange / numTicks;
+        double yStep = yRange / numTicks;
     
         // Draw x-axis ticks and numbers
-        g2.setColor(Color.BLACK);
+        canvas.setColor(Color.BLACK);
         for (int i = 0; i <= numTicks; i++) {
-            double xValue = xMin + i * xStep;
-            int xPixel = (int) (padding + (xValue - xMin) * (width - 2 * padding) / (xMax - xMin));
+            double xValue = view.getXMin() + i * xStep;
+            int xPixel = (int) view.toPixelX(xValue);
     
             // Draw tick
-            g2.drawLine(xPixel, height - padding, xPixel, height - padding + tickLength);
+            canvas.drawLine(xPixel, height - padding, xPixel, height - padding + tickLength);
     
             // Draw number
             String label = formatNumber(xValue, xRange);
-            int labelWidth = g2.getFontMetrics().stringWidth(label);
-            g2.drawString(label, xPixel - labelWidth / 2, height - padding + 20);
+            int labelWidth = canvas.stringWidth(label);
+            canvas.drawString(label, xPixel - labelWidth / 2, height - padding + 20);
         }
     
         // Draw y-axis ticks and numbers
         for (int i = 0; i <= numTicks; i++) {
-            double yValue = yMin + i * yStep;
-            int yPixel = (int) (height - padding - (yValue - yMin) * (height - 2 * padding) / (yMax - yMin));
+            double yValue = view.getYMin() + i * yStep;
+            int yPixel = (int) view.toPixelY(yValue);
     
             // Draw tick
-            g2.drawLine(padding - tickLength, yPixel, padding, yPixel);
+            canvas.drawLine(padding - tickLength, yPixel, padding, yPixel);
     
             // Draw number
             String label = formatNumber(yValue, yRange);
-            int labelWidth = g2.getFontMetrics().stringWidth(label);
-            g2.drawString(label, padding - labelWidth - 10, yPixel + 5);
+            int labelWidth = canvas.stringWidth(label);
+            canvas.drawString(label, padding - labelWidth - 10, yPixel + 5);
         }
     }
 
@@ -233,103 +374,176 @@ public class Plot extends JPanel implements MouseWheelListener, MouseListener, M
         return String.format("%." + decimalPlaces + "f", value);
     }
 
-    private void plotData(Graphics2D g2) {
-        int width = getWidth();
-        int height = getHeight();
-
-        // Find min and max values for scaling
-        double xMin = Double.MAX_VALUE;
-        double xMax = Double.MIN_VALUE;
-        double yMin = Double.MAX_VALUE;
-        double yMax = Double.MIN_VALUE;
+    private int totalPoints() {
+        long total = 0;
+        for (PlotSeries s : series) total += s.size();
+        return (int) Math.min(Integer.MAX_VALUE, total);
+    }
 
-        for (double[] xData : xDataList) {
-            for (double x : xData) {
-                if (x < xMin) xMin = x;
-                if (x > xMax) xMax = x;
-            }
-        }
-        for (double[] yData : yDataList) {
-            for (double y : yData) {
-                if (y < yMin) yMin = y;
-                if (y > yMax) yMax = y;
-            }
+    // Blit the cached data layer, stretched or shifted onto the current viewport, and request a
+    // fresh one in the background if it is stale
+    private void drawDataLayer(Graphics2D g2, Viewport view) {
+        if (layer != null) {
+            int x1 = (int) Math.round(view.toPixelX(layerView.toDataX(0)));
+            int x2 = (int) Math.round(view.toPixelX(layerView.toDataX(layer.getWidth())));
+            int y1 = (int) Math.round(view.toPixelY(layerView.toDataY(0)));
+            int y2 = (int) Math.round(view.toPixelY(layerView.toDataY(layer.getHeight())));
+            Shape clip = g2.getClip();
+            g2.clipRect(padding, padding, view.getWidth() - 2 * padding, view.getHeight() - 2 * padding);
+            g2.drawImage(layer, x1, y1, x2, y2, 0, 0, layer.getWidth(), layer.getHeight(), null);
+            g2.setClip(clip);
         }
 
-        // Avoid division by zero in case of constant data
-        if (xMin == xMax) {
-            xMin -= 1;
-            xMax += 1;
-        }
-        if (yMin == yMax) {
-            yMin -= 1;
-            yMax += 1;
-        }
+        boolean current = layer != null && layerVersion == dataVersion && layerView.sameAs(view);
+        boolean inFlight = pendingView != null && pendingVersion == dataVersion && pendingView.sameAs(view);
+        if (!current && !inFlight) requestLayer(view);
+    }
+
+    private void requestLayer(Viewport view) {
+        if (pendingRender != null) pendingRender.cancel(false);
+        long generation = renderGeneration.incrementAndGet();
+        long version = dataVersion;
+        // The task only ever sees this snapshot; the EDT keeps appending to the live series
+        PlotSeries.Snapshot[] snapshot = snapshots();
+        pendingView = view;
+        pendingVersion = version;
+        pendingRender = renderer.submit(() -> {
+            long start = Metrics.isEnabled() ? System.nanoTime() : 0;
+            BufferedImage image = new BufferedImage(Math.max(1, view.getWidth()), Math.max(1, view.getHeight()), BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2 = image.createGraphics();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.clipRect(padding, padding, view.getWidth() - 2 * padding, view.getHeight() - 2 * padding);
+            boolean done = plotData(new Graphics2DCanvas(g2), view, generation, snapshot);
+            g2.dispose();
+            if (!done) return;
+            if (Metrics.isEnabled()) Metrics.paint(start, buffers.get().drawn, buffers.get().skipped, snapshot.length, true);
+            SwingUtilities.invokeLater(() -> {
+                if (renderGeneration.get() != generation) return;
+                layer = image;
+                layerView = view;
+                layerVersion = version;
+                pendingView = null;
+                repaint();
+            });
+        });
+    }
 
-        // Apply zoom factor and panning offsets
-        double xRange = (xMax - xMin) * zoomFactor;
-        double yRange = (yMax - yMin) * zoomFactor;
-        double xCenter = (xMin + xMax) / 2 + xOffset;
-        double yCenter = (yMin + yMax) / 2 + yOffset;
-        xMin = xCenter - xRange / 2;
-        xMax = xCenter + xRange / 2;
-        yMin = yCenter - yRange / 2;
-        yMax = yCenter + yRange / 2;
+    // Taken on the thread that mutates the series, so a render sees one consistent state per series
+    private PlotSeries.Snapshot[] snapshots() {
+        PlotSeries.Snapshot[] snapshot = new PlotSeries.Snapshot[series.size()];
+        for (int i = 0; i < snapshot.length; i++) snapshot[i] = series.get(i).snapshot();
+        return snapshot;
+    }
+
+    // Generation SYNC is never cancelled
+    private boolean cancelled(long generation) {
+        return generation != SYNC && renderGeneration.get() != generation;
+    }
 
-        // Scale data to fit the plot area
-        double xScale = (width - 2 * padding) / (xMax - xMin);
-        double yScale = (height - 2 * padding) / (yMax - yMin);
+    // Returns false if a newer render was requested before this one finished
+    private boolean plotData(PlotCanvas canvas, Viewport view, long generation, PlotSeries.Snapshot[] series) {
+        PixelBuffer buf = buffers.get();
+        buf.drawn = buf.skipped = 0;
+        double columns = Math.max(1, view.getWidth() - 2 * padding);
 
         // Plot points and lines for each dataset
-        for (int datasetIndex = 0; datasetIndex < xDataList.size(); datasetIndex++) {
-            double[] xData = xDataList.get(datasetIndex);
-            double[] yData = yDataList.get(datasetIndex);
-            Color color = colors.get(datasetIndex);
-
-            g2.setColor(color);
-            Point2D prevPoint = null;
-            for (int i = 0; i < xData.length; i++) {
-                double x = xData[i];
-                double y = yData[i];
-
-                // Apply panning offsets to the data points
-                double xPlot = x - xOffset;
-                double yPlot = y - yOffset;
-
-                // Scale and translate to plot coordinates
-                int plotX = (int) (padding + (xPlot - xMin) * xScale);
-                int plotY = (int) (height - padding - (yPlot - yMin) * yScale);
-
-                // Draw point
-                g2.fillOval(plotX - pointRadius, plotY - pointRadius, 2 * pointRadius, 2 * pointRadius);
-
-                // Draw line to previous point
-                if (prevPoint != null) {
-                    g2.draw(new Line2D.Double(prevPoint.getX(), prevPoint.getY(), plotX, plotY));
+        for (PlotSeries.Snapshot s : series) {
+            if (cancelled(generation)) return false;
+            double[] xData = s.getXData();
+            double[] yData = s.getYData();
+
+            // Only the visible index range when x is sorted
+            int from = s.firstVisible(view.getXMin());
+            int to = s.lastVisible(view.getXMax());
+            buf.skipped += s.size() - (to - from);
+
+            canvas.setColor(s.getColor());
+            canvas.setAntialias(s.isAntialias());
+
+            // Several samples per pixel column: draw the min/max envelope instead
+            if (s.isMonotonic()) {
+                int level = s.getPyramid().levelFor((to - from) / (2 * columns));
+                if (level >= 0) {
+                    int drawn = plotEnvelope(canvas, view, s, level, from, to, buf);
+                    buf.drawn += drawn;
+                    buf.skipped += Math.max(0, to - from - drawn);
+                    continue;
+                }
+            }
+
+            buf.drawn += to - from;
+
+            // Markers only while they stay visually apart
+            boolean markers = columns / Math.max(1, to - from) >= MARKER_SPACING;
+
+            // Transform and draw in chunks; each chunk repeats the last point of the previous one
+            for (int start = from; start < to - 1 || start == from; start += CHUNK) {
+                if (cancelled(generation)) return false;
+                int end = Math.min(to, start + CHUNK + 1);
+                int n = 0;
+                for (int i = start; i < end; i++, n++) {
+                    buf.x[n] = (int) view.toPixelX(xData[i]);
+                    buf.y[n] = (int) view.toPixelY(yData[i]);
+                }
+                canvas.drawPolyline(buf.x, buf.y, n);
+                if (markers) {
+                    for (int i = start == from ? 0 : 1; i < n; i++) {
+                        canvas.fillMarker(buf.x[i], buf.y[i], pointRadius);
+                    }
                 }
-                prevPoint = new Point2D.Double(plotX, plotY);
             }
         }
+        canvas.setAntialias(true);
+        return true;
     }
 
-    private void drawLegend(Graphics2D g2) {
-        int legendX = getWidth() - 150;
+    // Zigzag through the min and max of each bucket; at a few buckets per pixel column this fills
+    // the same pixels as the raw samples, peaks included
+    // Returns the number of vertices drawn
+    private int plotEnvelope(PlotCanvas canvas, Viewport view, PlotSeries.Snapshot s, int level, int from, int to, PixelBuffer buf) {
+        SeriesPyramid.Snapshot pyramid = s.getPyramid();
+        int bucketSize = pyramid.bucketSize(level);
+        double[] xData = s.getXData();
+        int first = from / bucketSize;
+        int last = Math.min(pyramid.bucketCount(level), (to - 1) / bucketSize + 1);
+
+        // About two buckets per pixel column, so this fits one chunk for any sane plot width
+        int k = 0;
+        for (int b = first; b < last; b++) {
+            if (k + 2 > buf.x.length) {
+                canvas.drawPolyline(buf.x, buf.y, k);
+                buf.x[0] = buf.x[k - 1];
+                buf.y[0] = buf.y[k - 1];
+                k = 1;
+            }
+            int px = (int) view.toPixelX(xData[b * bucketSize]);
+            buf.x[k] = px;
+            buf.y[k++] = (int) view.toPixelY(pyramid.getMin(level, b));
+            buf.x[k] = px;
+            buf.y[k++] = (int) view.toPixelY(pyramid.getMax(level, b));
+        }
+        canvas.drawPolyline(buf.x, buf.y, k);
+        return Math.max(0, 2 * (last - first));
+    }
+
+    private void drawLegend(PlotCanvas canvas, Viewport view) {
+        int legendX = view.getWidth() - 150;
         int legendY = 20;
         int legendWidth = 130;
-        int legendHeight = 20 * labels.size();
+        int legendHeight = 20 * series.size();
 
         // Draw legend background
-        g2.setColor(new Color(255, 255, 255, 200)); // Semi-transparent white
-        g2.fillRect(legendX, legendY, legendWidth, legendHeight);
+        canvas.setColor(new Color(255, 255, 255, 200)); // Semi-transparent white
+        canvas.fillRect(legendX, legendY, legendWidth, legendHeight);
 
         // Draw legend entries
-        g2.setColor(Color.BLACK);
-        for (int i = 0; i < labels.size(); i++) {
+        canvas.setColor(Color.BLACK);
+        for (int i = 0; i < series.size(); i++) {
             int entryY = legendY + 20 * i + 15;
-            g2.setColor(colors.get(i));
-            g2.fillRect(legendX + 5, entryY - 10, 10, 10);
-            g2.setColor(Color.BLACK);
-            g2.drawString(labels.get(i), legendX + 20, entryY);
+            canvas.setColor(series.get(i).getColor());
+            canvas.fillRect(legendX + 5, entryY - 10, 10, 10);
+            canvas.setColor(Color.BLACK);
+            canvas.drawString(series.get(i).getLabel(), legendX + 20, entryY);
         }
     }
 
@@ -360,31 +574,12 @@ public class Plot extends JPanel implements MouseWheelListener, MouseListener, M
             int dx = e.getX() - lastMousePoint.x;
             int dy = e.getY() - lastMousePoint.y;
 
-            // Calculate the current displayed range of x and y
-            double xMin = Double.MAX_VALUE;
-            double xMax = Double.MIN_VALUE;
-            double yMin = Double.MAX_VALUE;
-            double yMax = Double.MIN_VALUE;
+            // Current displayed range of x and y from the cached bounds
+            Viewport view = getViewport();
 
-            for (double[] xData : xDataList) {
-                for (double x : xData) {
-                    if (x < xMin) xMin = x;
-                    if (x > xMax) xMax = x;
-                }
-            }
-            for (double[] yData : yDataList) {
-                for (double y : yData) {
-                    if (y < yMin) yMin = y;
-                    if (y > yMax) yMax = y;
-                }
-            }
-
-            double xRange = (xMax - xMin) * zoomFactor;
-            double yRange = (yMax - yMin) * zoomFactor;
-
-            // Adjust the panning offsets based on mouse movement and current displayed range
-            xOffset -= 0.5 * dx / (getWidth() - 2 * padding) * xRange;
-            yOffset += 0.5 * dy / (getHeight() - 2 * padding) * yRange;
+            // Adjust the panning offsets so the data follows the mouse
+            xOffset -= dx / view.getXScale();
+            yOffset += dy / view.getYScale();
 
             // Save the new mouse position
             lastMousePoint = e.getPoint();
@@ -401,22 +596,43 @@ public class Plot extends JPanel implements MouseWheelListener, MouseListener, M
     }
 
     @Override
-    public void mouseClicked(MouseEvent e) {}
+    public void mouseClicked(MouseEvent e) {
+        // Pin the hovered point, or unpin it if it already is
+        DataCursor c = pick(getViewport(), e.getX(), e.getY());
+        if (c == null) return;
+        if (!pinned.removeIf(p -> p.series == c.series && p.x == c.x && p.y == c.y)) pinned.add(c);
+        repaint();
+    }
 
     @Override
     public void mouseEntered(MouseEvent e) {}
 
     @Override
-    public void mouseExited(MouseEvent e) {}
+    public void mouseExited(MouseEvent e) {
+        if (hover != null) {
+            hover = null;
+            repaint();
+        }
+    }
 
     @Override
-    public void mouseMoved(MouseEvent e) {}
+    public void mouseMoved(MouseEvent e) {
+        // Readout of the nearest data point; repaint only when it changes
+        DataCursor c = pick(getViewport(), e.getX(), e.getY());
+        boolean same = c == null ? hover == null : hover != null && hover.series == c.series && hover.x == c.x && hover.y == c.y;
+        if (!same) {
+            hover = c;
+            repaint();
+        }
+    }
 
     public void title(String title) {
         this.title = title;
-        this.frame.setTitle(title);
+        if (this.frame != null) this.frame.setTitle(title);
     }
 
+    public String getTitle() { return this.title; }
+
     public void xLabel(String xlabel) { this.xlabel = xlabel; }
 
     public String getXLabel() { return this.xlabel; }
@@ -428,7 +644,7 @@ public class Plot extends JPanel implements MouseWheelListener, MouseListener, M
     public void setShowGrid(boolean showGrid) { this.showGrid = showGrid; }
 
     public void plot() {
-        this.title = "Figure " + numPlots;
+        if (this.title == null) this.title = "Figure " + numPlots++;
         this.frame = new JFrame(title);
         this.frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         this.frame.setSize(800, 600);
@@ -0,0 +1,26 @@
+import java.awt.Color;
+
+// Drawing surface for Plot, so the same drawing code targets Swing, offscreen images and SVG
+public interface PlotCanvas {
+    void setColor(Color color);
+
+    void setAntialias(boolean antialias);
+
+    void drawLine(int x1, int y1, int x2, int y2);
+
+    void drawPolyline(int[] x, int[] y, int n);
+
+    void fillRect(int x, int y, int width, int height);
+
+    // Filled circle centered on (x, y)
+    void fillMarker(int x, int y, int radius);
+
+    void drawString(String text, int x, int y);
+
+    int stringWidth(String text);
+
+    // Restrict drawing to a rectangle until the matching popClip
+    void pushClip(int x, int y, int width, int height);
+
+    void popClip();
+}
@@ -0,0 +1,118 @@
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Headless figure export. Uses Plot.render, so no window is ever created and it runs with
+// java.awt.headless=true. Batches are rendered and encoded in parallel on a fork-join pool.
+// PNG files are encoded straight into the file; PNG to an arbitrary OutputStream is buffered in
+// memory, since the encoder needs a seekable stream.
+public class PlotExporter {
+    static final int LEAF_SIZE = 1; // Figures per task; each one is already substantial work
+
+    private int width = 800; // [px]
+    private int height = 600; // [px]
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    public void setSize(int width, int height) {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Size must be positive: " + width + "x" + height);
+        this.width = width;
+        this.height = height;
+    }
+
+    public void setPool(ForkJoinPool pool) { this.pool = pool; }
+
+    // Format chosen by extension: .svg writes SVG, anything else PNG
+    public void write(Plot plot, Path file) throws IOException {
+        if (file.getFileName().toString().toLowerCase().endsWith(".svg")) writeSvg(plot, file);
+        else writePng(plot, file);
+    }
+
+    public void writePng(Plot plot, Path file) throws IOException {
+        BufferedImage image = plot.render(width, height);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(0); // FileImageOutputStream does not truncate
+            try (ImageOutputStream stream = new FileImageOutputStream(raf)) {
+                encodePng(image, stream);
+            }
+        }
+    }
+
+    public static void writePng(BufferedImage image, OutputStream out) throws IOException {
+        try (ImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            encodePng(image, stream);
+        }
+    }
+
+    private static void encodePng(BufferedImage image, ImageOutputStream stream) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        try {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), writer.getDefaultWriteParam());
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    public void writeSvg(Plot plot, Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            plot.renderSvg(width, height).writeTo(out);
+        }
+    }
+
+    // Write plots.get(i) to files.get(i) for all i in parallel; the first failure is rethrown
+    public void writeAll(List<Plot> plots, List<Path> files) throws IOException {
+        if (plots.size() != files.size()) throw new IllegalArgumentException("plots and files lengths differ: " + plots.size() + " vs " + files.size());
+        try {
+            pool.invoke(new ExportTask(plots, files, 0, plots.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class ExportTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Plot> plots;
+        private final List<Path> files;
+        private final int from, to;
+
+        ExportTask(List<Plot> plots, List<Path> files, int from, int to) {
+            this.plots = plots;
+            this.files = files;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        write(plots.get(i), files.get(i));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ExportTask(plots, files, from, mid),
+                      new ExportTask(plots, files, mid, to));
+        }
+    }
+}
@@ -0,0 +1,177 @@
+import java.awt.Color;
+import java.util.Arrays;
+
+// One data series of a Plot. Bounds are computed once when the series is created and updated
+// incrementally on append, so drawing never rescans the data.
+public class PlotSeries {
+    private double[] xData;
+    private double[] yData;
+    private int size;
+    private boolean owned; // Arrays were allocated here and may grow in place
+    private final Color color;
+    private final String label;
+
+    private double xMin = Double.POSITIVE_INFINITY;
+    private double xMax = Double.NEGATIVE_INFINITY;
+    private double yMin = Double.POSITIVE_INFINITY;
+    private double yMax = Double.NEGATIVE_INFINITY;
+    private boolean monotonic = true; // x never decreases, so visible ranges can be binary searched
+    private boolean antialias = true; // Smooth lines; turn off for very dense series
+    private PointIndex index; // Nearest-point lookup, built on first use
+    private SeriesPyramid pyramid = new SeriesPyramid(); // Min/max buckets for zoomed-out drawing
+
+    public PlotSeries(double[] xData, double[] yData, Color color, String label) {
+        if (xData.length != yData.length) throw new IllegalArgumentException("x and y lengths differ: " + xData.length + " vs " + yData.length);
+        this.xData = xData;
+        this.yData = yData;
+        this.color = color;
+        this.label = label;
+        extend(0, xData.length);
+        this.size = xData.length;
+        pyramid.extend(yData, 0, size);
+    }
+
+    public void append(double[] xs, double[] ys) {
+        if (xs.length != ys.length) throw new IllegalArgumentException("x and y lengths differ: " + xs.length + " vs " + ys.length);
+        append(xs, ys, 0, xs.length);
+    }
+
+    public void append(double[] xs, double[] ys, int offset, int length) {
+        int needed = size + length;
+        if (!owned || needed > xData.length) {
+            int capacity = Math.max(needed, owned ? 2 * xData.length : needed + needed / 2);
+            xData = Arrays.copyOf(xData, capacity);
+            yData = Arrays.copyOf(yData, capacity);
+            owned = true;
+        }
+        System.arraycopy(xs, offset, xData, size, length);
+        System.arraycopy(ys, offset, yData, size, length);
+        int from = size;
+        size = needed;
+        extend(from, needed);
+        pyramid.extend(yData, from, needed);
+    }
+
+    // Drop all but the last keep points and rebuild bounds and pyramid from the rest. Samples and
+    // buckets go into fresh arrays and a fresh pyramid, never over the old ones, so a snapshot
+    // taken before (see Plot's background render) keeps reading consistent data.
+    public void retainLast(int keep) {
+        if (size <= keep) return;
+        int drop = size - keep;
+        double[] xs = new double[Math.max(1, 2 * keep)];
+        double[] ys = new double[xs.length];
+        System.arraycopy(xData, drop, xs, 0, keep);
+        System.arraycopy(yData, drop, ys, 0, keep);
+        xData = xs;
+        yData = ys;
+        owned = true;
+        size = keep;
+        xMin = Double.POSITIVE_INFINITY;
+        xMax = Double.NEGATIVE_INFINITY;
+        yMin = Double.POSITIVE_INFINITY;
+        yMax = Double.NEGATIVE_INFINITY;
+        monotonic = true;
+        index = null;
+        pyramid = new SeriesPyramid();
+        extend(0, keep);
+        pyramid.extend(yData, 0, keep);
+    }
+
+    private void extend(int from, int to) {
+        for (int i = from; i < to; i++) {
+            double x = xData[i];
+            double y = yData[i];
+            if (x < xMin) xMin = x;
+            if (x > xMax) xMax = x;
+            if (y < yMin) yMin = y;
+            if (y > yMax) yMax = y;
+            if (i > 0 && x < xData[i - 1]) monotonic = false;
+        }
+    }
+
+    public double[] getXData() { return this.xData; } // Valid up to size()
+    public double[] getYData() { return this.yData; }
+    public int size() { return this.size; }
+    public Color getColor() { return this.color; }
+    public String getLabel() { return this.label; }
+    public double getXMin() { return this.xMin; }
+    public double getXMax() { return this.xMax; }
+    public double getYMin() { return this.yMin; }
+    public double getYMax() { return this.yMax; }
+    public boolean isMonotonic() { return this.monotonic; }
+    public boolean isAntialias() { return this.antialias; }
+    public void setAntialias(boolean antialias) { this.antialias = antialias; }
+    public SeriesPyramid getPyramid() { return this.pyramid; }
+
+    // Immutable state for drawing off the EDT: the arrays up to size are never written again
+    // (append writes past size, growth and retainLast copy), so only the references are captured
+    public Snapshot snapshot() {
+        return new Snapshot(xData, yData, size, monotonic, antialias, color, pyramid.snapshot());
+    }
+
+    public static final class Snapshot {
+        private final double[] xData, yData;
+        private final int size;
+        private final boolean monotonic, antialias;
+        private final Color color;
+        private final SeriesPyramid.Snapshot pyramid;
+
+        private Snapshot(double[] xData, double[] yData, int size, boolean monotonic, boolean antialias,
+                         Color color, SeriesPyramid.Snapshot pyramid) {
+            this.xData = xData;
+            this.yData = yData;
+            this.size = size;
+            this.monotonic = monotonic;
+            this.antialias = antialias;
+            this.color = color;
+            this.pyramid = pyramid;
+        }
+
+        public double[] getXData() { return this.xData; } // Valid up to size()
+        public double[] getYData() { return this.yData; }
+        public int size() { return this.size; }
+        public boolean isMonotonic() { return this.monotonic; }
+        public boolean isAntialias() { return this.antialias; }
+        public Color getColor() { return this.color; }
+        public SeriesPyramid.Snapshot getPyramid() { return this.pyramid; }
+        public int firstVisible(double xLo) { return PlotSeries.firstVisible(xData, size, monotonic, xLo); }
+        public int lastVisible(double xHi) { return PlotSeries.lastVisible(xData, size, monotonic, xHi); }
+    }
+
+    public PointIndex getIndex() {
+        if (index == null || index.size() != size) index = new PointIndex(this);
+        return index;
+    }
+
+    // First index whose x is >= xLo, stepping one back so a line into the view is still drawn
+    public int firstVisible(double xLo) {
+        return firstVisible(xData, size, monotonic, xLo);
+    }
+
+    private static int firstVisible(double[] xData, int size, boolean monotonic, double xLo) {
+        if (!monotonic) return 0;
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (xData[mid] < xLo) lo = mid + 1;
+            else hi = mid;
+        }
+        return Math.max(0, lo - 1);
+    }
+
+    // One past the last index whose x is <= xHi, plus one point for the line leaving the view
+    public int lastVisible(double xHi) {
+        return lastVisible(xData, size, monotonic, xHi);
+    }
+
+    private static int lastVisible(double[] xData, int size, boolean monotonic, double xHi) {
+        if (!monotonic) return size;
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (xData[mid] <= xHi) lo = mid + 1;
+            else hi = mid;
+        }
+        return Math.min(size, lo + 1);
+    }
+}
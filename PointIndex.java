@@ -0,0 +1,118 @@
+// Nearest-sample lookup in screen space for one PlotSeries. Monotonic x is binary searched
+// directly; arbitrary x gets a uniform grid over the data bounds with points bucketed by cell
+// (counting sort, CSR layout). Built lazily by PlotSeries.getIndex on the first hover.
+public class PointIndex {
+    static final int POINTS_PER_CELL = 4; // Average occupancy the grid is sized for
+
+    private final PlotSeries series;
+    private final int size; // Samples covered; a grown series builds a new index
+
+    // Grid over [xMin, xMax] x [yMin, yMax], null for monotonic series
+    private final int cols, rows;
+    private final double xMin, yMin, cellW, cellH;
+    private final int[] cellStart; // Points of cell c are cellPoints[cellStart[c] .. cellStart[c + 1])
+    private final int[] cellPoints;
+
+    public PointIndex(PlotSeries series) {
+        this.series = series;
+        this.size = series.size();
+        if (series.isMonotonic() || size == 0) {
+            cols = rows = 0;
+            xMin = yMin = cellW = cellH = 0;
+            cellStart = cellPoints = null;
+            return;
+        }
+
+        double[] x = series.getXData();
+        double[] y = series.getYData();
+        int g = (int) Math.max(1, Math.ceil(Math.sqrt((double) size / POINTS_PER_CELL)));
+        this.cols = g;
+        this.rows = g;
+        this.xMin = series.getXMin();
+        this.yMin = series.getYMin();
+        this.cellW = Math.max(series.getXMax() - xMin, Double.MIN_NORMAL) / g;
+        this.cellH = Math.max(series.getYMax() - yMin, Double.MIN_NORMAL) / g;
+
+        // Counting sort by cell
+        int[] start = new int[cols * rows + 1];
+        int[] cell = new int[size];
+        for (int i = 0; i < size; i++) {
+            cell[i] = cellOf(x[i], y[i]);
+            start[cell[i] + 1]++;
+        }
+        for (int c = 0; c < cols * rows; c++) start[c + 1] += start[c];
+        int[] points = new int[size];
+        int[] fill = start.clone();
+        for (int i = 0; i < size; i++) points[fill[cell[i]]++] = i;
+        this.cellStart = start;
+        this.cellPoints = points;
+    }
+
+    private int cellOf(double x, double y) {
+        int cx = Math.min(cols - 1, (int) ((x - xMin) / cellW));
+        int cy = Math.min(rows - 1, (int) ((y - yMin) / cellH));
+        return cy * cols + cx;
+    }
+
+    public int size() { return this.size; }
+
+    // Index of the sample closest to pixel (px, py) within radius pixels, or -1
+    public int nearest(Viewport view, double px, double py, double radius) {
+        if (size == 0) return -1;
+        double[] x = series.getXData();
+        double[] y = series.getYData();
+        double best = radius * radius;
+        int bestIndex = -1;
+
+        if (cellStart == null) {
+            // Samples inside the horizontal band of the search radius, found by binary search
+            int from = lowerBound(x, view.toDataX(px - radius));
+            int to = lowerBound(x, Math.nextUp(view.toDataX(px + radius)));
+            for (int i = from; i < to; i++) {
+                double dx = view.toPixelX(x[i]) - px;
+                double dy = view.toPixelY(y[i]) - py;
+                double d = dx * dx + dy * dy;
+                if (d < best) {
+                    best = d;
+                    bestIndex = i;
+                }
+            }
+            return bestIndex;
+        }
+
+        // Grid cells overlapping the search square
+        double x0 = view.toDataX(px - radius), x1 = view.toDataX(px + radius);
+        double y0 = view.toDataY(py + radius), y1 = view.toDataY(py - radius);
+        int cx0 = Math.max(0, (int) Math.floor((x0 - xMin) / cellW));
+        int cx1 = Math.min(cols - 1, (int) Math.floor((x1 - xMin) / cellW));
+        int cy0 = Math.max(0, (int) Math.floor((y0 - yMin) / cellH));
+        int cy1 = Math.min(rows - 1, (int) Math.floor((y1 - yMin) / cellH));
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                int c = cy * cols + cx;
+                for (int k = cellStart[c]; k < cellStart[c + 1]; k++) {
+                    int i = cellPoints[k];
+                    double dx = view.toPixelX(x[i]) - px;
+                    double dy = view.toPixelY(y[i]) - py;
+                    double d = dx * dx + dy * dy;
+                    if (d < best) {
+                        best = d;
+                        bestIndex = i;
+                    }
+                }
+            }
+        }
+        return bestIndex;
+    }
+
+    // First index in [0, size) with x >= value
+    private int lowerBound(double[] x, double value) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (x[mid] < value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
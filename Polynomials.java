@@ -0,0 +1,192 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Real polynomial helpers. Coefficients are in decreasing degree, like TransferFunction's num and den.
+// Complex roots are returned as a pair of arrays {re, im}.
+public class Polynomials {
+
+    public static double[] trim(double[] p) {
+        int start = 0;
+        while (start < p.length - 1 && p[start] == 0) start++;
+        if (start == 0) return p.clone();
+        double[] out = new double[p.length - start];
+        System.arraycopy(p, start, out, 0, out.length);
+        return out;
+    }
+
+    public static int degree(double[] p) {
+        return trim(p).length - 1;
+    }
+
+    public static double evaluate(double[] p, double x) {
+        double acc = 0.0;
+        for (double c : p) acc = acc * x + c;
+        return acc;
+    }
+
+    public static double[] multiply(double[] p, double[] q) {
+        double[] r = new double[p.length + q.length - 1];
+        for (int i = 0; i < p.length; i++) {
+            for (int j = 0; j < q.length; j++) {
+                r[i + j] += p[i] * q[j];
+            }
+        }
+        return r;
+    }
+
+    // Aligned at the constant term
+    public static double[] add(double[] p, double[] q) {
+        int len = Math.max(p.length, q.length);
+        double[] r = new double[len];
+        for (int i = 0; i < p.length; i++) r[len - p.length + i] += p[i];
+        for (int i = 0; i < q.length; i++) r[len - q.length + i] += q[i];
+        return r;
+    }
+
+    public static double[] scale(double[] p, double s) {
+        double[] r = new double[p.length];
+        for (int i = 0; i < p.length; i++) r[i] = p[i] * s;
+        return r;
+    }
+
+    // Monic polynomial with the given roots. Complex roots must appear in conjugate pairs.
+    public static double[] fromRoots(double[] re, double[] im) {
+        int n = re.length;
+        double[] cr = new double[n + 1];
+        double[] ci = new double[n + 1];
+        cr[0] = 1.0;
+        for (int k = 0; k < n; k++) {
+            for (int i = k + 1; i >= 1; i--) {
+                double r = cr[i] - (re[k] * cr[i - 1] - im[k] * ci[i - 1]);
+                double c = ci[i] - (re[k] * ci[i - 1] + im[k] * cr[i - 1]);
+                cr[i] = r;
+                ci[i] = c;
+            }
+        }
+        return cr;
+    }
+
+    // Roots by Aberth-Ehrlich iteration
+    public static double[][] roots(double[] p) {
+        double[] q = trim(p);
+        int n = q.length - 1;
+        double[] re = new double[Math.max(n, 0)];
+        double[] im = new double[Math.max(n, 0)];
+        if (n <= 0) return new double[][] {re, im};
+
+        double lead = q[0];
+        double[] a = new double[n + 1];
+        for (int i = 0; i <= n; i++) a[i] = q[i] / lead;
+
+        // Start on a circle bounded by the Cauchy root radius
+        double radius = 0.0;
+        for (int i = 1; i <= n; i++) radius = Math.max(radius, Math.pow(Math.abs(a[i]), 1.0 / i));
+        if (radius == 0) radius = 1.0;
+        for (int k = 0; k < n; k++) {
+            double theta = 2 * Math.PI * k / n + 0.4;
+            re[k] = radius * Math.cos(theta);
+            im[k] = radius * Math.sin(theta);
+        }
+
+        for (int iter = 0; iter < 500; iter++) {
+            double maxStep = 0.0;
+            for (int k = 0; k < n; k++) {
+                // p(z) and p'(z) by Horner
+                double pr = a[0], pi = 0, dr = 0, di = 0;
+                for (int i = 1; i <= n; i++) {
+                    double ndr = dr * re[k] - di * im[k] + pr;
+                    double ndi = dr * im[k] + di * re[k] + pi;
+                    dr = ndr;
+                    di = ndi;
+                    double npr = pr * re[k] - pi * im[k] + a[i];
+                    double npi = pr * im[k] + pi * re[k];
+                    pr = npr;
+                    pi = npi;
+                }
+                if (pr == 0 && pi == 0) continue;
+
+                // w = p / p'
+                double den = dr * dr + di * di;
+                if (den == 0) continue;
+                double wr = (pr * dr + pi * di) / den;
+                double wi = (pi * dr - pr * di) / den;
+
+                // s = sum 1 / (z_k - z_j)
+                double sr = 0, si = 0;
+                for (int j = 0; j < n; j++) {
+                    if (j == k) continue;
+                    double xr = re[k] - re[j];
+                    double xi = im[k] - im[j];
+                    double m = xr * xr + xi * xi;
+                    if (m == 0) continue;
+                    sr += xr / m;
+                    si -= xi / m;
+                }
+
+                // step = w / (1 - w s)
+                double br = 1 - (wr * sr - wi * si);
+                double bi = -(wr * si + wi * sr);
+                double bm = br * br + bi * bi;
+                double stepR = (wr * br + wi * bi) / bm;
+                double stepI = (wi * br - wr * bi) / bm;
+                re[k] -= stepR;
+                im[k] -= stepI;
+
+                double mag = Math.hypot(stepR, stepI) / (1 + Math.hypot(re[k], im[k]));
+                if (mag > maxStep) maxStep = mag;
+            }
+            if (maxStep < 1e-15) break;
+        }
+
+        // Snap nearly-real roots onto the real axis and make conjugates exact. Repeated roots come
+        // back as a cluster whose imaginary parts need not pair up; the coefficients are real, so
+        // a root left without a conjugate is an artifact of the cluster and belongs on the real axis.
+        for (int k = 0; k < n; k++) {
+            if (Math.abs(im[k]) <= 1e-9 * (1 + Math.abs(re[k]))) im[k] = 0.0;
+        }
+        int[] mate = conjugates(re, im, CONJUGATE_TOL);
+        for (int k = 0; k < n; k++) {
+            if (im[k] == 0) continue;
+            if (mate[k] < 0) {
+                im[k] = 0.0;
+            } else if (im[k] > 0) {
+                int j = mate[k];
+                double r = (re[k] + re[j]) / 2, i = (im[k] - im[j]) / 2;
+                re[k] = r;
+                im[k] = i;
+                re[j] = r;
+                im[j] = -i;
+            }
+        }
+        return new double[][] {re, im};
+    }
+
+    static final double CONJUGATE_TOL = 1e-6; // Relative distance below which two roots are conjugates
+
+    // Pairs roots in the upper half plane with roots in the lower half plane, closest pairs first,
+    // as long as root j is within tol (1 + |root k|) of the conjugate of root k. Returns each
+    // root's mate, or -1 for real, infinite (NaN) or unpaired roots.
+    static int[] conjugates(double[] re, double[] im, double tol) {
+        int n = re.length;
+        int[] mate = new int[n];
+        Arrays.fill(mate, -1);
+        List<double[]> candidates = new ArrayList<>(); // {distance, upper, lower}
+        for (int k = 0; k < n; k++) {
+            if (!(im[k] > 0)) continue;
+            for (int j = 0; j < n; j++) {
+                if (!(im[j] < 0)) continue;
+                double dist = Math.hypot(re[j] - re[k], im[j] + im[k]);
+                if (dist <= tol * (1 + Math.hypot(re[k], im[k]))) candidates.add(new double[] {dist, k, j});
+            }
+        }
+        candidates.sort((p, q) -> Double.compare(p[0], q[0]));
+        for (double[] c : candidates) {
+            int k = (int) c[1], j = (int) c[2];
+            if (mate[k] >= 0 || mate[j] >= 0) continue;
+            mate[k] = j;
+            mate[j] = k;
+        }
+        return mate;
+    }
+}
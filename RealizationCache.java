@@ -0,0 +1,210 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Memoized model realizations. A prototype simulator is built once per (normalized num, den, dt,
+// solver) and every lookup returns prototype.fresh(), which shares the realization, transition
+// matrices and LU factors but has its own zero state. Bounded by entry count and by an estimate
+// of the retained bytes, evicting least recently used first. Concurrent misses on the same key
+// wait for a single build.
+public class RealizationCache {
+    private static final RealizationCache DEFAULT = new RealizationCache(256, 64L << 20);
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // Access order, guarded by itself
+    private final ConcurrentHashMap<Key, CompletableFuture<Simulator>> pending = new ConcurrentHashMap<>();
+    private long bytes; // Estimated size of the retained prototypes, guarded by entries
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RealizationCache(int maxEntries, long maxBytes) {
+        if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be at least 1: " + maxEntries);
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    // Shared by TransferFunction.simulate
+    public static RealizationCache getDefault() { return DEFAULT; }
+
+    // RK4 simulator, as TransferFunction.compile
+    public Simulator get(TransferFunction tf, double dt) {
+        return get(new Key(tf, dt, Solver.RK4), () -> tf.compile(dt));
+    }
+
+    public Simulator get(TransferFunction tf, double dt, Solver solver) {
+        return get(new Key(tf, dt, solver), () -> tf.simulator(dt, solver));
+    }
+
+    private Simulator get(Key key, Supplier<Simulator> build) {
+        Simulator proto = lookup(key);
+        if (proto != null) {
+            hits.increment();
+            return proto.fresh();
+        }
+
+        CompletableFuture<Simulator> mine = new CompletableFuture<>();
+        CompletableFuture<Simulator> other = pending.putIfAbsent(key, mine);
+        if (other != null) {
+            // Someone else is building it
+            hits.increment();
+            return await(other).fresh();
+        }
+        try {
+            // It may have been stored between the first lookup and claiming the key
+            proto = lookup(key);
+            if (proto != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                proto = build.get();
+                store(key, proto);
+            }
+            mine.complete(proto);
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            pending.remove(key, mine);
+        }
+        return proto.fresh();
+    }
+
+    private static Simulator await(CompletableFuture<Simulator> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    private Simulator lookup(Key key) {
+        synchronized (entries) {
+            Entry e = entries.get(key);
+            return e == null ? null : e.prototype;
+        }
+    }
+
+    private void store(Key key, Simulator proto) {
+        long size = estimateBytes(proto);
+        synchronized (entries) {
+            Entry old = entries.put(key, new Entry(proto, size));
+            if (old != null) bytes -= old.bytes;
+            bytes += size;
+            // Least recently used first; the newest entry stays even if it alone is over budget
+            Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || bytes > maxBytes) && entries.size() > 1) {
+                Entry eldest = it.next().getValue();
+                it.remove();
+                bytes -= eldest.bytes;
+                evictions.increment();
+            }
+        }
+    }
+
+    // Rough retained size: coefficient vectors plus any n x n transition or LU matrices
+    private static long estimateBytes(Simulator sim) {
+        long n = sim.order();
+        long matrices = sim instanceof DiscreteSimulator ? 1 : sim instanceof ImplicitSimulator ? 2 : 0;
+        return 64 + 8 * (matrices * n * n + 4 * n);
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long estimatedBytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    public long getHits() { return this.hits.sum(); }
+    public long getMisses() { return this.misses.sum(); }
+    public long getEvictions() { return this.evictions.sum(); }
+    public int getMaxEntries() { return this.maxEntries; }
+    public long getMaxBytes() { return this.maxBytes; }
+
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public String toString() {
+        return "RealizationCache[" + size() + "/" + maxEntries + " entries, " + estimatedBytes() + "/" + maxBytes
+                + " bytes, " + getHits() + " hits, " + getMisses() + " misses, " + getEvictions() + " evictions]";
+    }
+
+    private static final class Entry {
+        final Simulator prototype;
+        final long bytes;
+
+        Entry(Simulator prototype, long bytes) {
+            this.prototype = prototype;
+            this.bytes = bytes;
+        }
+    }
+
+    // Coefficients scaled so den[0] == 1, with leading zeros of num dropped, so equivalent
+    // transfer functions share an entry
+    private static final class Key {
+        private final double[] num;
+        private final double[] den;
+        private final double dt;
+        private final Solver solver;
+        private final int hash;
+
+        Key(TransferFunction tf, double dt, Solver solver) {
+            double[] num = tf.getNum();
+            double[] den = tf.getDen();
+            double lead = den.length > 0 ? den[0] : 0.0;
+            if (lead == 0) throw new IllegalArgumentException("Leading denominator coefficient must be nonzero");
+            int skip = 0;
+            while (skip < num.length - 1 && num[skip] == 0) skip++;
+            this.num = normalize(num, skip, lead);
+            this.den = normalize(den, 0, lead);
+            this.dt = dt;
+            this.solver = solver;
+            this.hash = 31 * (31 * (31 * Arrays.hashCode(this.num) + Arrays.hashCode(this.den)) + Double.hashCode(dt)) + solver.hashCode();
+        }
+
+        private static double[] normalize(double[] p, int from, double lead) {
+            double[] out = new double[p.length - from];
+            for (int i = 0; i < out.length; i++) out[i] = p[from + i] / lead + 0.0; // + 0.0 folds -0.0 into 0.0
+            return out;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return hash == k.hash && solver == k.solver && Double.compare(dt, k.dt) == 0
+                    && Arrays.equals(num, k.num) && Arrays.equals(den, k.den);
+        }
+
+        @Override
+        public int hashCode() { return hash; }
+    }
+}
@@ -0,0 +1,55 @@
+// Streaming response statistics. Samples are accepted one at a time, so no output array is kept.
+public class ResponseMetrics {
+    private final double dt; // [s]
+    private final double target; // Expected final value
+    private final double tolerance; // Settling band as a fraction of the largest deviation seen
+
+    private long count;
+    private double peak = Double.NEGATIVE_INFINITY;
+    private long peakIndex;
+    private double sumSquares;
+    private double maxDeviation;
+    private long lastOutside = -1; // Last sample outside the settling band
+
+    public ResponseMetrics(double dt, double target, double tolerance) {
+        this.dt = dt;
+        this.target = target;
+        this.tolerance = tolerance;
+    }
+
+    public void accept(double y) {
+        if (y > peak) {
+            peak = y;
+            peakIndex = count;
+        }
+        sumSquares += y * y;
+
+        double deviation = Math.abs(y - target);
+        if (deviation > maxDeviation) maxDeviation = deviation;
+        if (deviation > tolerance * Math.max(Math.abs(target), maxDeviation)) lastOutside = count;
+        count++;
+    }
+
+    public long getCount() { return this.count; }
+
+    public double getPeak() { return this.peak; }
+
+    public double getPeakTime() { return this.peakIndex * dt; } // [s]
+
+    public double getRms() { return count == 0 ? 0.0 : Math.sqrt(sumSquares / count); }
+
+    // Percent overshoot relative to the final value, NaN when the final value is zero
+    public double getOvershoot() {
+        if (target == 0) return Double.NaN;
+        return Math.max(0.0, (peak - target) / Math.abs(target)) * 100;
+    }
+
+    public double getSettlingTime() { return (lastOutside + 1) * dt; } // [s]
+
+    public boolean isSettled() { return lastOutside < count - 1; }
+
+    public String toString() {
+        return "peak=" + peak + " @ " + getPeakTime() + " s, rms=" + getRms()
+                + ", overshoot=" + getOvershoot() + " %, settling=" + getSettlingTime() + " s";
+    }
+}
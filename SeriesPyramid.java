@@ -0,0 +1,128 @@
+import java.util.Arrays;
+
+// Min/max level-of-detail pyramid over the samples of a series. Level k groups BASE * FACTOR^k
+// consecutive samples and keeps the smallest and largest y of each group, so a zoomed-out view
+// can draw a couple of points per pixel column and still show every peak.
+public class SeriesPyramid {
+    static final int BASE = 8; // Samples per bucket on the finest level
+    static final int FACTOR = 4; // Buckets merged per step up the pyramid
+
+    private double[][] min = new double[0][];
+    private double[][] max = new double[0][];
+    private int[] counts = new int[0]; // Buckets per level, the last one may be partial
+    private int size; // Samples covered
+
+    // Rebuild the buckets touched by samples [from, to) of y; to is the new series size
+    public void extend(double[] y, int from, int to) {
+        size = to;
+        int levels = 0;
+        for (long bs = BASE; bs < to; bs *= FACTOR) levels++;
+        if (levels > min.length) {
+            min = Arrays.copyOf(min, levels);
+            max = Arrays.copyOf(max, levels);
+            counts = Arrays.copyOf(counts, levels);
+        }
+
+        int bucketSize = BASE;
+        for (int k = 0; k < min.length; k++, bucketSize *= FACTOR) {
+            int n = (to + bucketSize - 1) / bucketSize;
+            int first = min[k] == null ? 0 : from / bucketSize; // New levels are built in full
+            if (min[k] == null || n > min[k].length) {
+                int capacity = Math.max(n, min[k] == null ? n : 2 * min[k].length);
+                min[k] = min[k] == null ? new double[capacity] : Arrays.copyOf(min[k], capacity);
+                max[k] = max[k] == null ? new double[capacity] : Arrays.copyOf(max[k], capacity);
+            }
+            if (k == 0) {
+                // Finest level straight from the samples
+                for (int b = first; b < n; b++) {
+                    int lo = b * bucketSize;
+                    int hi = Math.min(to, lo + bucketSize);
+                    double mn = y[lo], mx = y[lo];
+                    for (int i = lo + 1; i < hi; i++) {
+                        double v = y[i];
+                        if (v < mn) mn = v;
+                        if (v > mx) mx = v;
+                    }
+                    min[0][b] = mn;
+                    max[0][b] = mx;
+                }
+            } else {
+                // Coarser levels from the level below
+                double[] cmin = min[k - 1], cmax = max[k - 1];
+                int childCount = counts[k - 1];
+                for (int b = first; b < n; b++) {
+                    int lo = b * FACTOR;
+                    int hi = Math.min(childCount, lo + FACTOR);
+                    double mn = cmin[lo], mx = cmax[lo];
+                    for (int i = lo + 1; i < hi; i++) {
+                        if (cmin[i] < mn) mn = cmin[i];
+                        if (cmax[i] > mx) mx = cmax[i];
+                    }
+                    min[k][b] = mn;
+                    max[k][b] = mx;
+                }
+            }
+            counts[k] = n;
+        }
+    }
+
+    // Immutable view of the buckets as of now, for readers on another thread. extend only ever
+    // rewrites each level's last (possibly partial) bucket and appends after it, and grows arrays
+    // by copying, so the snapshot shares the arrays and copies just those last buckets.
+    public Snapshot snapshot() {
+        int levels = min.length;
+        double[] lastMin = new double[levels];
+        double[] lastMax = new double[levels];
+        for (int k = 0; k < levels; k++) {
+            lastMin[k] = min[k][counts[k] - 1];
+            lastMax[k] = max[k][counts[k] - 1];
+        }
+        return new Snapshot(min.clone(), max.clone(), counts.clone(), lastMin, lastMax);
+    }
+
+    public static final class Snapshot {
+        private final double[][] min, max;
+        private final int[] counts;
+        private final double[] lastMin, lastMax;
+
+        private Snapshot(double[][] min, double[][] max, int[] counts, double[] lastMin, double[] lastMax) {
+            this.min = min;
+            this.max = max;
+            this.counts = counts;
+            this.lastMin = lastMin;
+            this.lastMax = lastMax;
+        }
+
+        public int levels() { return this.min.length; }
+        public int bucketSize(int level) { return BASE * pow(FACTOR, level); }
+        public int bucketCount(int level) { return this.counts[level]; }
+        public double getMin(int level, int bucket) { return bucket == counts[level] - 1 ? lastMin[level] : min[level][bucket]; }
+        public double getMax(int level, int bucket) { return bucket == counts[level] - 1 ? lastMax[level] : max[level][bucket]; }
+
+        public int levelFor(double samplesPerBucket) {
+            int level = -1;
+            for (int k = 0; k < min.length && bucketSize(k) <= samplesPerBucket; k++) level = k;
+            return level;
+        }
+    }
+
+    public int levels() { return this.min.length; }
+    public int size() { return this.size; }
+    public int bucketSize(int level) { return BASE * pow(FACTOR, level); }
+    public int bucketCount(int level) { return this.counts[level]; }
+    public double[] getMin(int level) { return this.min[level]; }
+    public double[] getMax(int level) { return this.max[level]; }
+
+    // Coarsest level whose buckets hold at most samplesPerBucket samples, or -1 for raw samples
+    public int levelFor(double samplesPerBucket) {
+        int level = -1;
+        for (int k = 0; k < min.length && bucketSize(k) <= samplesPerBucket; k++) level = k;
+        return level;
+    }
+
+    private static int pow(int base, int exp) {
+        int r = 1;
+        for (int i = 0; i < exp; i++) r *= base;
+        return r;
+    }
+}
@@ -0,0 +1,14 @@
+// Lazily evaluated input signal. Samples are generated on demand for any block of sample
+// indices, so a simulation can be driven for any length without an input or time array.
+// Implementations are stateless: the same block always yields the same samples, and blocks may
+// be requested out of order or from several threads.
+public interface Signal {
+    // Samples start .. start + len - 1 at times k dt, written to buf[off .. off + len)
+    void fill(long start, double dt, double[] buf, int off, int len);
+
+    default double at(long k, double dt) {
+        double[] one = new double[1];
+        fill(k, dt, one, 0, 1);
+        return one[0];
+    }
+}
@@ -0,0 +1,263 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Factory for the standard excitation signals and combinators over them. Time is k dt for
+// sample k; sources that take times or frequencies use seconds and Hz.
+public class Signals {
+    private static final int SCRATCH = 1024; // Samples per pass when a combinator needs a second buffer
+
+    // Maximal-length Fibonacci LFSR taps (1-based bit positions) for orders 2..24
+    private static final int[][] PRBS_TAPS = {
+            null, null, {2, 1}, {3, 2}, {4, 3}, {5, 3}, {6, 5}, {7, 6}, {8, 6, 5, 4}, {9, 5}, {10, 7}, {11, 9},
+            {12, 6, 4, 1}, {13, 4, 3, 1}, {14, 5, 3, 1}, {15, 14}, {16, 15, 13, 4}, {17, 14}, {18, 11},
+            {19, 6, 2, 1}, {20, 17}, {21, 19}, {22, 21}, {23, 18}, {24, 23, 22, 17}
+    };
+
+    private Signals() {}
+
+    public static Signal zero() {
+        return (start, dt, buf, off, len) -> {
+            for (int i = 0; i < len; i++) buf[off + i] = 0.0;
+        };
+    }
+
+    public static Signal constant(double value) {
+        return (start, dt, buf, off, len) -> {
+            for (int i = 0; i < len; i++) buf[off + i] = value;
+        };
+    }
+
+    // Single sample of the given amplitude at k = 0
+    public static Signal impulse(double amplitude) {
+        return (start, dt, buf, off, len) -> {
+            for (int i = 0; i < len; i++) buf[off + i] = start + i == 0 ? amplitude : 0.0;
+        };
+    }
+
+    public static Signal step(double amplitude) {
+        return step(amplitude, 0.0);
+    }
+
+    // 0 before t0, amplitude from t0 on [s]
+    public static Signal step(double amplitude, double t0) {
+        return (start, dt, buf, off, len) -> {
+            for (int i = 0; i < len; i++) buf[off + i] = (start + i) * dt >= t0 ? amplitude : 0.0;
+        };
+    }
+
+    public static Signal ramp(double slope) {
+        return (start, dt, buf, off, len) -> {
+            for (int i = 0; i < len; i++) buf[off + i] = slope * (start + i) * dt;
+        };
+    }
+
+    // t itself, for time vectors computed on demand [s]
+    public static Signal time() {
+        return ramp(1.0);
+    }
+
+    public static Signal sine(double amplitude, double frequency, double phase) {
+        double w = 2 * Math.PI * frequency;
+        return (start, dt, buf, off, len) -> {
+            for (int i = 0; i < len; i++) buf[off + i] = amplitude * Math.sin(w * (start + i) * dt + phase);
+        };
+    }
+
+    // Linear sweep from f0 to f1 [Hz] over duration [s], then held at f1 with continuous phase
+    public static Signal chirp(double amplitude, double f0, double f1, double duration) {
+        if (!(duration > 0)) throw new IllegalArgumentException("Chirp duration must be positive: " + duration);
+        double rate = (f1 - f0) / duration; // [Hz/s]
+        double endPhase = 2 * Math.PI * (f0 * duration + rate * duration * duration / 2);
+        return (start, dt, buf, off, len) -> {
+            for (int i = 0; i < len; i++) {
+                double t = (start + i) * dt;
+                double phase = t <= duration
+                        ? 2 * Math.PI * (f0 * t + rate * t * t / 2)
+                        : endPhase + 2 * Math.PI * f1 * (t - duration);
+                buf[off + i] = amplitude * Math.sin(phase);
+            }
+        };
+    }
+
+    // Pseudo-random binary sequence of +-amplitude from an order-bit maximal LFSR (period
+    // 2^order - 1 bits), each bit held for samplesPerBit samples. The seed selects the starting
+    // register. One period is precomputed, 2^order bits.
+    public static Signal prbs(double amplitude, int order, int samplesPerBit, long seed) {
+        if (order < 2 || order >= PRBS_TAPS.length) throw new IllegalArgumentException("PRBS order must be 2.." + (PRBS_TAPS.length - 1) + ": " + order);
+        if (samplesPerBit < 1) throw new IllegalArgumentException("samplesPerBit must be at least 1: " + samplesPerBit);
+
+        int period = (1 << order) - 1;
+        int mask = period;
+        int reg = (int) (seed & mask);
+        if (reg == 0) reg = 1; // The all-zero register never leaves zero
+        long[] bits = new long[(period + 63) >>> 6];
+        int[] taps = PRBS_TAPS[order];
+        for (int k = 0; k < period; k++) {
+            if ((reg & 1) != 0) bits[k >>> 6] |= 1L << k;
+            int feedback = 0;
+            for (int tap : taps) feedback ^= reg >>> (order - tap);
+            reg = ((reg >>> 1) | ((feedback & 1) << (order - 1))) & mask;
+        }
+
+        return (start, dt, buf, off, len) -> {
+            for (int i = 0; i < len; i++) {
+                long k = start + i;
+                int bit = k < 0 ? 0 : (int) ((k / samplesPerBit) % period);
+                buf[off + i] = (bits[bit >>> 6] >>> bit & 1) != 0 ? amplitude : -amplitude;
+            }
+        };
+    }
+
+    // Zero-mean Gaussian noise. Each sample is a hash of (seed, k), so any block is reproducible
+    // without generating the samples before it.
+    public static Signal noise(double stdDev, long seed) {
+        return (start, dt, buf, off, len) -> {
+            for (int i = 0; i < len; i++) {
+                long k = start + i;
+                long h1 = mix(seed + k * 0x9E3779B97F4A7C15L);
+                long h2 = mix(h1 ^ 0xD1B54A32D192ED03L);
+                double u1 = ((h1 >>> 11) + 1) * 0x1.0p-53; // (0, 1]
+                double u2 = (h2 >>> 11) * 0x1.0p-53;
+                buf[off + i] = stdDev * Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+            }
+        };
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // Linear interpolation through (times[i], values[i]), times ascending [s]; the end values are
+    // held outside the range
+    public static Signal piecewise(double[] times, double[] values) {
+        if (times.length != values.length) throw new IllegalArgumentException("times and values lengths differ: " + times.length + " vs " + values.length);
+        if (times.length == 0) throw new IllegalArgumentException("Piecewise signal needs at least one point");
+        for (int i = 1; i < times.length; i++) {
+            if (times[i] < times[i - 1]) throw new IllegalArgumentException("Piecewise times must be ascending at index " + i);
+        }
+        double[] ts = times.clone();
+        double[] vs = values.clone();
+        int last = ts.length - 1;
+        return (start, dt, buf, off, len) -> {
+            // Binary search for the first sample, then walk forward with time
+            double t0 = start * dt;
+            int lo = 0, hi = ts.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (ts[mid] <= t0) lo = mid + 1;
+                else hi = mid;
+            }
+            int seg = lo; // First breakpoint after t
+            for (int i = 0; i < len; i++) {
+                double t = (start + i) * dt;
+                while (seg <= last && ts[seg] <= t) seg++;
+                double v;
+                if (seg == 0) v = vs[0];
+                else if (seg > last) v = vs[last];
+                else {
+                    double span = ts[seg] - ts[seg - 1];
+                    v = vs[seg - 1] + (vs[seg] - vs[seg - 1]) * (t - ts[seg - 1]) / span;
+                }
+                buf[off + i] = v;
+            }
+        };
+    }
+
+    // Raw little-endian doubles, one per sample (the MappedSimulator format); zero past the end
+    public static Signal file(Path path) throws IOException {
+        return file(path, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // The file is mapped read-only in windows up front and the channel closed; the mappings stay
+    // valid and the samples are paged in by the OS as blocks are read
+    public static Signal file(Path path, ByteOrder order) throws IOException {
+        DoubleBuffer[] windows;
+        long samples;
+        long perWindow = MappedSimulator.DEFAULT_WINDOW / 8;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (ch.size() % 8 != 0) throw new IOException(path + " is not a whole number of doubles (" + ch.size() + " bytes)");
+            samples = ch.size() / 8;
+            windows = new DoubleBuffer[(int) ((samples + perWindow - 1) / perWindow)];
+            for (int w = 0; w < windows.length; w++) {
+                long first = w * perWindow;
+                long count = Math.min(perWindow, samples - first);
+                windows[w] = ch.map(FileChannel.MapMode.READ_ONLY, 8 * first, 8 * count).order(order).asDoubleBuffer();
+            }
+        }
+        long total = samples;
+        return (start, dt, buf, off, len) -> {
+            int i = 0;
+            while (i < len) {
+                long k = start + i;
+                if (k < 0 || k >= total) {
+                    buf[off + i++] = 0.0;
+                    continue;
+                }
+                DoubleBuffer window = windows[(int) (k / perWindow)];
+                int at = (int) (k % perWindow);
+                int n = Math.min(len - i, window.limit() - at);
+                window.get(at, buf, off + i, n);
+                i += n;
+            }
+        };
+    }
+
+    public static Signal sum(Signal... terms) {
+        Signal[] ts = terms.clone();
+        return (start, dt, buf, off, len) -> {
+            if (ts.length == 0) {
+                for (int i = 0; i < len; i++) buf[off + i] = 0.0;
+                return;
+            }
+            ts[0].fill(start, dt, buf, off, len);
+            if (ts.length == 1) return;
+            double[] scratch = new double[Math.min(len, SCRATCH)];
+            for (int done = 0; done < len; done += scratch.length) {
+                int n = Math.min(scratch.length, len - done);
+                for (int j = 1; j < ts.length; j++) {
+                    ts[j].fill(start + done, dt, scratch, 0, n);
+                    for (int i = 0; i < n; i++) buf[off + done + i] += scratch[i];
+                }
+            }
+        };
+    }
+
+    public static Signal scale(Signal signal, double gain) {
+        return (start, dt, buf, off, len) -> {
+            signal.fill(start, dt, buf, off, len);
+            for (int i = 0; i < len; i++) buf[off + i] *= gain;
+        };
+    }
+
+    // Shifted later by samples; zero before the shifted start
+    public static Signal delay(Signal signal, long samples) {
+        if (samples < 0) throw new IllegalArgumentException("Delay must be non-negative: " + samples);
+        return (start, dt, buf, off, len) -> shift(signal, samples, start, dt, buf, off, len);
+    }
+
+    // Shifted later by seconds, rounded to whole samples of the dt the signal is read with
+    public static Signal delay(Signal signal, double seconds) {
+        if (!(seconds >= 0)) throw new IllegalArgumentException("Delay must be non-negative: " + seconds);
+        return (start, dt, buf, off, len) -> shift(signal, Math.round(seconds / dt), start, dt, buf, off, len);
+    }
+
+    private static void shift(Signal signal, long samples, long start, double dt, double[] buf, int off, int len) {
+        int lead = (int) Math.max(0, Math.min(len, samples - start));
+        for (int i = 0; i < lead; i++) buf[off + i] = 0.0;
+        if (lead < len) signal.fill(start + lead - samples, dt, buf, off + lead, len - lead);
+    }
+
+    // Materialize samples 0 .. n - 1, e.g. for plotting
+    public static double[] toArray(Signal signal, double dt, int n) {
+        double[] out = new double[n];
+        signal.fill(0, dt, out, 0, n);
+        return out;
+    }
+}
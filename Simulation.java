@@ -12,14 +12,12 @@ public class Simulation {
 
         TransferFunction T_f = new TransferFunction(num, den);
 
-        double[] f = new double[1000];
-        for(int i = 0; i < f.length; i++) f[i] = 0;
-        f[0] = 100;
+        int samples = 1000;
+        Signal f = Signals.impulse(100); // [N]
 
-        double[] x_t = T_f.simulate(f, dt);
+        double[] x_t = T_f.simulate(f, samples, dt);
 
-        double[] t = new double[f.length];
-        for(int i = 0; i < t.length; i++) t[i] = i*dt; 
+        double[] t = Signals.toArray(Signals.time(), dt, samples); // Only needed for plotting
 
 
         Utilities.printArr(x_t);
@@ -28,7 +26,7 @@ public class Simulation {
         Plot fig1 = new Plot();
         fig1.plot();
         fig1.add(t, x_t, new Color(20, 180, 100), "x [m]");
-        //fig1.add(t, f, new Color(180, 100, 20), "F [N]");
+        //fig1.add(t, Signals.toArray(f, dt, samples), new Color(180, 100, 20), "F [N]");
         fig1.xLabel("t [s]");
         fig1.title("Displacement versus Time");
     }
@@ -0,0 +1,40 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// JFR event for one TransferFunction.simulate call, committed by Metrics when enabled
+@Name("transferfunction.Simulate")
+@Label("Simulate")
+@Category({"Transfer Function", "Simulation"})
+@Description("One simulate call: model build, output allocation and integration")
+public class SimulationEvent extends jdk.jfr.Event {
+    @Label("Engine")
+    String engine;
+
+    @Label("Order")
+    int order;
+
+    @Label("Samples")
+    long samples;
+
+    @Label("Steps Executed")
+    @Description("Integrator steps, including rejected adaptive steps")
+    long steps;
+
+    @Label("Model Build Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long buildTime;
+
+    @Label("Output Allocation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long allocateTime;
+
+    @Label("Integration Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long integrateTime;
+
+    @Label("Samples per Second")
+    double samplesPerSecond;
+}
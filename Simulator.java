@@ -0,0 +1,57 @@
+public interface Simulator {
+    int order(); // Number of state variables
+
+    double dt(); // [s]
+
+    double step(double u); // Emit the output for the current sample and advance one dt
+
+    // Output for the current sample without advancing the state
+    default double peek(double u) {
+        double[] saved = new double[order()];
+        getState(saved);
+        double y = step(u);
+        setState(saved);
+        return y;
+    }
+
+    void reset();
+
+    void getState(double[] dst);
+
+    void setState(double[] src);
+
+    // Solver memory beyond the state vector that the next step depends on (a multistep method's
+    // previous state, an adaptive step size). Empty for one-step methods. setState may restart it,
+    // so an exact resume is setState followed by setHistory.
+    default double[] getHistory() { return new double[0]; }
+
+    default void setHistory(double[] src) {}
+
+    // New simulator at zero state sharing this one's immutable coefficients; lets a cached
+    // realization (see RealizationCache) hand out independent instances without rebuilding
+    Simulator fresh();
+
+    default void process(double[] input, int inOff, double[] output, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            output[outOff + i] = step(input[inOff + i]);
+        }
+    }
+
+    default double[] simulate(double[] input) {
+        double[] output = new double[input.length];
+        process(input, 0, output, 0, input.length);
+        return output;
+    }
+
+    // First samples of a lazy input, pulled in blocks; only the output is allocated
+    default double[] simulate(Signal input, int samples) {
+        double[] output = new double[samples];
+        double[] block = new double[Math.min(samples, StreamSimulator.DEFAULT_BLOCK)];
+        for (int done = 0; done < samples; done += block.length) {
+            int len = Math.min(block.length, samples - done);
+            input.fill(done, dt(), block, 0, len);
+            process(block, 0, output, done, len);
+        }
+        return output;
+    }
+}
@@ -0,0 +1,10 @@
+public enum Solver {
+    RK4,            // Fixed-step 4th order Runge-Kutta on the continuous model; diverges on stiff models, see StiffnessCheck
+    ZOH,            // Exact discretization assuming the input is held over each dt
+    TUSTIN,         // Bilinear (trapezoidal) transform
+    MATCHED,        // Matched pole-zero mapping z = e^(s*dt)
+    DORMAND_PRINCE, // Adaptive-step RK45 with dense output on the dt grid
+    TRAPEZOIDAL,    // Implicit trapezoidal rule, A-stable
+    BDF2,           // Implicit 2-step backward differentiation, L-stable
+    AUTO            // RK4 unless the model is stiff at this dt, then BDF2
+}
@@ -0,0 +1,119 @@
+// Continuous multi-input multi-output model dx/dt = A x + B u, y = C x + D u with n states,
+// m inputs and p outputs. All matrices are flat row-major arrays (A is n x n, B n x m, C p x n,
+// D p x m) and are copied on the way in and out.
+public class StateSpace {
+    private final int n, m, p; // States, inputs, outputs
+    private final double[] a, b, c, d;
+
+    public StateSpace(double[] a, double[] b, double[] c, double[] d, int n, int m, int p) {
+        if (n < 0 || m < 0 || p < 0) throw new IllegalArgumentException("Dimensions must be non-negative");
+        if (a.length != n * n) throw new IllegalArgumentException("A must be " + n + " x " + n + ", has " + a.length + " entries");
+        if (b.length != n * m) throw new IllegalArgumentException("B must be " + n + " x " + m + ", has " + b.length + " entries");
+        if (c.length != p * n) throw new IllegalArgumentException("C must be " + p + " x " + n + ", has " + c.length + " entries");
+        if (d.length != p * m) throw new IllegalArgumentException("D must be " + p + " x " + m + ", has " + d.length + " entries");
+        this.n = n;
+        this.m = m;
+        this.p = p;
+        this.a = a.clone();
+        this.b = b.clone();
+        this.c = c.clone();
+        this.d = d.clone();
+    }
+
+    // Controllable companion form, the same realization CompiledSimulator integrates
+    public static StateSpace of(TransferFunction tf) {
+        double[] num = tf.getNum();
+        double[] den = tf.getDen();
+        int n = den.length - 1;
+        int m = num.length - 1;
+        if (n < 0 || den[0] == 0) throw new IllegalArgumentException("Leading denominator coefficient must be nonzero");
+        if (m > n) throw new IllegalArgumentException("Transfer function must be proper (deg num <= deg den)");
+
+        double[] paddedNum = new double[n + 1];
+        System.arraycopy(num, 0, paddedNum, n - m, num.length);
+        double D = paddedNum[0] / den[0];
+        double[] A = new double[n * n];
+        double[] B = new double[n];
+        double[] C = new double[n];
+        for (int i = 0; i < n - 1; i++) A[i * n + i + 1] = 1.0;
+        for (int i = 0; i < n; i++) {
+            A[(n - 1) * n + i] = -den[n - i] / den[0];
+            C[i] = paddedNum[n - i] - D * den[n - i];
+        }
+        if (n > 0) B[n - 1] = 1.0 / den[0];
+        return new StateSpace(A, B, C, new double[]{D}, n, 1, 1);
+    }
+
+    // Block-diagonal combination: independent subsystems side by side, inputs and outputs of
+    // this one first
+    public StateSpace append(StateSpace o) {
+        int N = n + o.n, M = m + o.m, P = p + o.p;
+        double[] A = new double[N * N], B = new double[N * M], C = new double[P * N], D = new double[P * M];
+        place(A, N, 0, 0, a, n, n);
+        place(A, N, n, n, o.a, o.n, o.n);
+        place(B, M, 0, 0, b, n, m);
+        place(B, M, n, m, o.b, o.n, o.m);
+        place(C, N, 0, 0, c, p, n);
+        place(C, N, p, n, o.c, o.p, o.n);
+        place(D, M, 0, 0, d, p, m);
+        place(D, M, p, m, o.d, o.p, o.m);
+        return new StateSpace(A, B, C, D, N, M, P);
+    }
+
+    private static void place(double[] dst, int dstCols, int row, int col, double[] src, int rows, int cols) {
+        for (int i = 0; i < rows; i++) System.arraycopy(src, i * cols, dst, (row + i) * dstCols + col, cols);
+    }
+
+    // Fixed-step discrete model. The input is held over each dt, so both solvers reduce to one
+    // transition matrix and one input matrix:
+    //   ZOH: exact, exp([[A, B], [0, 0]] dt) = [[Ad, Bd], [0, I]]
+    //   RK4: the classical RK4 step applied to the linear model, Ad = I + F S and Bd = dt S B
+    //        with F = A dt and S = I + F/2 + F^2/6 + F^3/24; matches CompiledSimulator
+    public MimoSimulator simulator(double dt, Solver solver) {
+        double[] ad, bd;
+        switch (solver) {
+            case RK4: {
+                double[] F = Matrices.scale(a, dt);
+                double[] I = Matrices.identity(n);
+                double[] S = Matrices.add(I, F, 1.0 / 4); // Horner: I + F/2 (I + F/3 (I + F/4))
+                S = Matrices.add(I, Matrices.multiply(F, S, n), 1.0 / 3);
+                S = Matrices.add(I, Matrices.multiply(F, S, n), 1.0 / 2);
+                ad = Matrices.add(I, Matrices.multiply(F, S, n), 1.0);
+                bd = Matrices.scale(Matrices.multiply(S, b, n, n, m), dt);
+                break;
+            }
+            case ZOH: {
+                int na = n + m;
+                double[] M = new double[na * na];
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) M[i * na + j] = a[i * n + j] * dt;
+                    for (int j = 0; j < m; j++) M[i * na + n + j] = b[i * m + j] * dt;
+                }
+                double[] E = Matrices.expm(M, na);
+                ad = new double[n * n];
+                bd = new double[n * m];
+                for (int i = 0; i < n; i++) {
+                    System.arraycopy(E, i * na, ad, i * n, n);
+                    System.arraycopy(E, i * na + n, bd, i * m, m);
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("StateSpace supports RK4 and ZOH, not " + solver);
+        }
+        return new MimoSimulator(ad, bd, c, d, n, m, p, dt);
+    }
+
+    // Interleaved frames of m inputs in, interleaved frames of p outputs out
+    public double[] simulate(double[] input, double dt, Solver solver) {
+        return simulator(dt, solver).simulate(input);
+    }
+
+    public int order() { return this.n; }
+    public int inputs() { return this.m; }
+    public int outputs() { return this.p; }
+    public double[] getA() { return this.a.clone(); }
+    public double[] getB() { return this.b.clone(); }
+    public double[] getC() { return this.c.clone(); }
+    public double[] getD() { return this.d.clone(); }
+}
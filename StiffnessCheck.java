@@ -0,0 +1,63 @@
+// Decides from the poles whether explicit RK4 can run a model at a given dt
+public class StiffnessCheck {
+    private final double[] poleRe;
+    private final double[] poleIm;
+
+    public StiffnessCheck(TransferFunction tf) {
+        double[][] poles = Polynomials.roots(tf.getDen());
+        this.poleRe = poles[0];
+        this.poleIm = poles[1];
+    }
+
+    // |R(lambda dt)| for the RK4 amplification factor R(z) = 1 + z + z^2/2 + z^3/6 + z^4/24
+    private static double rk4Amplification(double re, double im) {
+        double sr = 1.0, si = 0.0; // Running sum
+        double tr = 1.0, ti = 0.0; // Current term z^k / k!
+        for (int k = 1; k <= 4; k++) {
+            double r = (tr * re - ti * im) / k;
+            double i = (tr * im + ti * re) / k;
+            tr = r;
+            ti = i;
+            sr += tr;
+            si += ti;
+        }
+        return Math.hypot(sr, si);
+    }
+
+    // True when some stable pole would be amplified by RK4 at this dt
+    public boolean isStiff(double dt) {
+        for (int k = 0; k < poleRe.length; k++) {
+            if (poleRe[k] >= 0) continue; // Growth is the right answer for unstable poles
+            if (rk4Amplification(poleRe[k] * dt, poleIm[k] * dt) > 1.0) return true;
+        }
+        return false;
+    }
+
+    // Largest RK4 step that keeps every stable pole inside the stability region
+    public double maxStableDt() {
+        double max = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < poleRe.length; k++) {
+            if (poleRe[k] >= 0) continue;
+            double lo = 0.0, hi = 1.0 / Math.hypot(poleRe[k], poleIm[k]);
+            while (rk4Amplification(poleRe[k] * hi, poleIm[k] * hi) <= 1.0) hi *= 2;
+            for (int iter = 0; iter < 60; iter++) {
+                double mid = (lo + hi) / 2;
+                if (rk4Amplification(poleRe[k] * mid, poleIm[k] * mid) <= 1.0) lo = mid;
+                else hi = mid;
+            }
+            max = Math.min(max, lo);
+        }
+        return max;
+    }
+
+    // Ratio of the fastest to the slowest decay rate among the stable poles
+    public double stiffnessRatio() {
+        double min = Double.POSITIVE_INFINITY, max = 0.0;
+        for (double re : poleRe) {
+            if (re >= 0) continue;
+            min = Math.min(min, -re);
+            max = Math.max(max, -re);
+        }
+        return max == 0 ? 1.0 : max / min;
+    }
+}
@@ -0,0 +1,124 @@
+import java.nio.DoubleBuffer;
+
+// Stateful block processor: input arrives in chunks and the integrator state carries over between calls
+public class StreamSimulator {
+    static final int DEFAULT_BLOCK = 4096; // Samples per block
+
+    // Receives each output block of run; block is reused, so copy what must be kept
+    public interface Sink {
+        void accept(long start, double[] block, int len);
+    }
+
+    private final Simulator sim;
+    private final double[] inBlock; // Staging buffers for DoubleBuffers without backing arrays
+    private final double[] outBlock;
+    private long samples; // Samples processed since the last reset
+
+    public static class Snapshot {
+        private final double[] state;
+        private final double[] history; // Simulator.getHistory, for solvers that remember past steps
+        private final long samples;
+
+        private Snapshot(double[] state, double[] history, long samples) {
+            this.state = state;
+            this.history = history;
+            this.samples = samples;
+        }
+
+        public double[] getState() { return this.state.clone(); }
+
+        public long getSamples() { return this.samples; }
+    }
+
+    public StreamSimulator(Simulator sim, int blockSize) {
+        this.sim = sim;
+        this.inBlock = new double[blockSize];
+        this.outBlock = new double[blockSize];
+    }
+
+    public StreamSimulator(Simulator sim) {
+        this(sim, DEFAULT_BLOCK);
+    }
+
+    public Simulator getSimulator() { return this.sim; }
+
+    public long getSamples() { return this.samples; }
+
+    public double getTime() { return this.samples * sim.dt(); } // [s]
+
+    public double push(double u) {
+        samples++;
+        return sim.step(u);
+    }
+
+    public void process(double[] input, int inOff, double[] output, int outOff, int len) {
+        sim.process(input, inOff, output, outOff, len);
+        samples += len;
+    }
+
+    // Consumes input.remaining() samples, writing as many into output. Both buffers advance.
+    public void process(DoubleBuffer input, DoubleBuffer output) {
+        int len = input.remaining();
+        if (output.remaining() < len) throw new IllegalArgumentException("Output buffer has " + output.remaining() + " slots for " + len + " samples");
+
+        if (input.hasArray() && output.hasArray()) {
+            int inOff = input.arrayOffset() + input.position();
+            int outOff = output.arrayOffset() + output.position();
+            process(input.array(), inOff, output.array(), outOff, len);
+            input.position(input.position() + len);
+            output.position(output.position() + len);
+            return;
+        }
+
+        while (len > 0) {
+            int chunk = Math.min(len, inBlock.length);
+            input.get(inBlock, 0, chunk);
+            process(inBlock, 0, outBlock, 0, chunk);
+            output.put(outBlock, 0, chunk);
+            len -= chunk;
+        }
+    }
+
+    // Next len samples of a lazy input, continuing from the current sample count
+    public void process(Signal input, double[] output, int outOff, int len) {
+        while (len > 0) {
+            int chunk = Math.min(len, inBlock.length);
+            input.fill(samples, sim.dt(), inBlock, 0, chunk);
+            process(inBlock, 0, output, outOff, chunk);
+            outOff += chunk;
+            len -= chunk;
+        }
+    }
+
+    // Drives count samples of input through the simulator and hands each output block to sink,
+    // so neither input nor output is ever held whole
+    public void run(Signal input, long count, Sink sink) {
+        while (count > 0) {
+            int chunk = (int) Math.min(count, inBlock.length);
+            long start = samples;
+            input.fill(start, sim.dt(), inBlock, 0, chunk);
+            process(inBlock, 0, outBlock, 0, chunk);
+            sink.accept(start, outBlock, chunk);
+            count -= chunk;
+        }
+    }
+
+    public Snapshot snapshot() {
+        double[] state = new double[sim.order()];
+        sim.getState(state);
+        return new Snapshot(state, sim.getHistory(), samples);
+    }
+
+    public void restore(Snapshot snapshot) {
+        if (snapshot.state.length != sim.order()) throw new IllegalArgumentException("Snapshot is for a system of order " + snapshot.state.length);
+        if (snapshot.history.length != sim.getHistory().length) throw new IllegalArgumentException("Snapshot is from a different solver");
+        sim.setState(snapshot.state);
+        sim.setHistory(snapshot.history);
+        this.samples = snapshot.samples;
+    }
+
+    public void reset() {
+        sim.reset();
+        this.samples = 0;
+    }
+}
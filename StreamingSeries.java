@@ -0,0 +1,94 @@
+import java.awt.Color;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Live series fed by one producer thread, typically a running simulation. Samples go through a
+// lock-free single-producer/single-consumer ring of primitive doubles; the EDT drains it into a
+// PlotSeries once per frame (see Plot.addStreaming), so the producer never touches Swing.
+public class StreamingSeries {
+    static final int DEFAULT_CAPACITY = 1 << 20; // Samples buffered between two frames
+
+    private final double[] xRing, yRing;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // Next sample the consumer reads
+    private final AtomicLong tail = new AtomicLong(); // Next sample the producer writes
+    private long cachedHead; // Producer's last view of head, refreshed only when the ring looks full
+
+    private final PlotSeries series;
+    private final int window; // Samples kept on screen, 0 for unbounded
+
+    public StreamingSeries(Color color, String label, int window, int capacity) {
+        if (window < 0) throw new IllegalArgumentException("Window must be non-negative: " + window);
+        if (capacity < 2) throw new IllegalArgumentException("Capacity must be at least 2: " + capacity);
+        int ring = Integer.highestOneBit(capacity - 1) << 1;
+        this.xRing = new double[ring];
+        this.yRing = new double[ring];
+        this.mask = ring - 1;
+        this.window = window;
+        this.series = new PlotSeries(new double[0], new double[0], color, label);
+    }
+
+    public StreamingSeries(Color color, String label, int window) {
+        this(color, label, window, DEFAULT_CAPACITY);
+    }
+
+    // Unbounded: every sample stays on the plot
+    public StreamingSeries(Color color, String label) {
+        this(color, label, 0, DEFAULT_CAPACITY);
+    }
+
+    // Producer side. Waits only if the EDT has fallen a full ring behind.
+    public void append(double x, double y) {
+        long t = tail.get();
+        if (t - cachedHead > mask) awaitSpace(t, 1);
+        xRing[(int) t & mask] = x;
+        yRing[(int) t & mask] = y;
+        tail.lazySet(t + 1); // Release: the consumer sees the sample before the new tail
+    }
+
+    public void append(double[] xs, double[] ys, int offset, int length) {
+        int done = 0;
+        while (done < length) {
+            long t = tail.get();
+            int chunk = Math.min(length - done, mask + 1);
+            if (t + chunk - cachedHead > mask + 1) awaitSpace(t, chunk);
+            int start = (int) t & mask;
+            int first = Math.min(chunk, mask + 1 - start);
+            System.arraycopy(xs, offset + done, xRing, start, first);
+            System.arraycopy(ys, offset + done, yRing, start, first);
+            System.arraycopy(xs, offset + done + first, xRing, 0, chunk - first);
+            System.arraycopy(ys, offset + done + first, yRing, 0, chunk - first);
+            tail.lazySet(t + chunk);
+            done += chunk;
+        }
+    }
+
+    private void awaitSpace(long t, int needed) {
+        for (int spins = 0; t + needed - (cachedHead = head.get()) > mask + 1; spins++) {
+            if (spins < 100) Thread.onSpinWait();
+            else Thread.yield();
+        }
+    }
+
+    // Consumer side, EDT only. Moves pending samples into the plotted series; returns how many.
+    // Renders in flight keep drawing the snapshot they were given (PlotSeries.snapshot), which
+    // neither the appends nor the compaction below write into.
+    int drain() {
+        long h = head.get();
+        long t = tail.get(); // Acquire: pairs with the producer's lazySet
+        int pending = (int) (t - h);
+        if (pending == 0) return 0;
+        int start = (int) h & mask;
+        int first = Math.min(pending, mask + 1 - start);
+        series.append(xRing, yRing, start, first);
+        if (first < pending) series.append(xRing, yRing, 0, pending - first);
+        head.lazySet(t);
+
+        // Compact once the window is exceeded twice over, amortized O(1) per sample
+        if (window > 0 && series.size() >= 2 * window) series.retainLast(window);
+        return pending;
+    }
+
+    public PlotSeries getSeries() { return this.series; }
+    public int getWindow() { return this.window; }
+    public long getPending() { return tail.get() - head.get(); }
+}
@@ -0,0 +1,138 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Writer;
+
+// PlotCanvas that records an SVG document. Text is measured with the same font as the Swing
+// rendering so labels line up identically in both outputs.
+public class SvgCanvas implements PlotCanvas {
+    private final StringBuilder out = new StringBuilder(1 << 16);
+    private final int width, height;
+    private final FontMetrics metrics;
+    private String fill = "#000000";
+    private String opacity = ""; // fill-opacity/stroke-opacity attributes for translucent colors
+    private boolean antialias = true;
+    private int clipCount;
+    private int openClips;
+
+    public SvgCanvas(int width, int height, Font font) {
+        this.width = width;
+        this.height = height;
+        BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = scratch.createGraphics();
+        this.metrics = g2.getFontMetrics(font != null ? font : g2.getFont());
+        g2.dispose();
+
+        Font f = metrics.getFont();
+        out.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(width)
+           .append("\" height=\"").append(height).append("\" viewBox=\"0 0 ").append(width).append(' ').append(height)
+           .append("\" font-family=\"").append(escape(f.getFamily())).append("\" font-size=\"").append(f.getSize())
+           .append("\">\n");
+        out.append("<rect width=\"100%\" height=\"100%\" fill=\"#ffffff\"/>\n");
+    }
+
+    @Override
+    public void setColor(Color color) {
+        fill = String.format("#%06x", color.getRGB() & 0xFFFFFF);
+        opacity = color.getAlpha() == 255 ? "" : String.format(" fill-opacity=\"%.3f\" stroke-opacity=\"%.3f\"",
+                color.getAlpha() / 255.0, color.getAlpha() / 255.0);
+    }
+
+    @Override
+    public void setAntialias(boolean antialias) { this.antialias = antialias; }
+
+    private StringBuilder rendering() {
+        return antialias ? out : out.append(" shape-rendering=\"crispEdges\"");
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        out.append("<line x1=\"").append(x1).append("\" y1=\"").append(y1).append("\" x2=\"").append(x2)
+           .append("\" y2=\"").append(y2).append("\" stroke=\"").append(fill).append('"').append(opacity);
+        rendering().append("/>\n");
+    }
+
+    @Override
+    public void drawPolyline(int[] x, int[] y, int n) {
+        if (n == 0) return;
+        out.append("<polyline fill=\"none\" stroke=\"").append(fill).append('"').append(opacity);
+        rendering().append(" points=\"");
+        for (int i = 0; i < n; i++) {
+            if (i > 0) out.append(' ');
+            out.append(x[i]).append(',').append(y[i]);
+        }
+        out.append("\"/>\n");
+    }
+
+    @Override
+    public void fillRect(int x, int y, int width, int height) {
+        out.append("<rect x=\"").append(x).append("\" y=\"").append(y).append("\" width=\"").append(width)
+           .append("\" height=\"").append(height).append("\" fill=\"").append(fill).append('"').append(opacity);
+        rendering().append("/>\n");
+    }
+
+    @Override
+    public void fillMarker(int x, int y, int radius) {
+        out.append("<circle cx=\"").append(x).append("\" cy=\"").append(y).append("\" r=\"").append(radius)
+           .append("\" fill=\"").append(fill).append('"').append(opacity).append("/>\n");
+    }
+
+    @Override
+    public void drawString(String text, int x, int y) {
+        out.append("<text x=\"").append(x).append("\" y=\"").append(y).append("\" fill=\"").append(fill).append('"')
+           .append(opacity).append('>').append(escape(text)).append("</text>\n");
+    }
+
+    @Override
+    public int stringWidth(String text) { return metrics.stringWidth(text); }
+
+    @Override
+    public void pushClip(int x, int y, int width, int height) {
+        int id = clipCount++;
+        out.append("<clipPath id=\"c").append(id).append("\"><rect x=\"").append(x).append("\" y=\"").append(y)
+           .append("\" width=\"").append(width).append("\" height=\"").append(height).append("\"/></clipPath>\n")
+           .append("<g clip-path=\"url(#c").append(id).append(")\">\n");
+        openClips++;
+    }
+
+    @Override
+    public void popClip() {
+        out.append("</g>\n");
+        openClips--;
+    }
+
+    public int getWidth() { return this.width; }
+    public int getHeight() { return this.height; }
+
+    // The finished document
+    @Override
+    public String toString() {
+        StringBuilder doc = new StringBuilder(out.length() + 16 + 5 * openClips).append(out);
+        for (int i = 0; i < openClips; i++) doc.append("</g>\n");
+        return doc.append("</svg>\n").toString();
+    }
+
+    public void writeTo(Writer writer) throws IOException {
+        writer.append(out);
+        for (int i = 0; i < openClips; i++) writer.append("</g>\n");
+        writer.append("</svg>\n");
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String r = c == '<' ? "&lt;" : c == '>' ? "&gt;" : c == '&' ? "&amp;" : c == '"' ? "&quot;" : null;
+            if (r == null) {
+                if (sb != null) sb.append(c);
+                continue;
+            }
+            if (sb == null) sb = new StringBuilder(s.length() + 16).append(s, 0, i);
+            sb.append(r);
+        }
+        return sb == null ? s : sb.toString();
+    }
+}
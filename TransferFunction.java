@@ -1,6 +1,10 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
 public class TransferFunction {
     private double[] num; // Coefficients of TF numerator coefficients in decreasing degree of s
     private double[] den; // . . .              denominator   . . .
+    private static final int BIQUAD_ORDER = 4; // Above this order discrete models run as biquad cascades
 
     public TransferFunction(double[] num, double[] den) {
         this.num = num;
@@ -27,96 +31,219 @@ public class TransferFunction {
         return lpf;
     }
 
-    public double[] simulate(double[] input, double dt) {
-        int n = den.length - 1; // Order of the system
-        int m = num.length - 1;
-
-        // Pad numerator with zeros if necessary
-        if (m < n) {
-            double[] paddedNum = new double[n + 1];
-            System.arraycopy(num, 0, paddedNum, n - m, num.length);
-            num = paddedNum;
-        }
+    public static TransferFunction massSpringDamper(double m, double c, double k) {
+        double[] numL = {1};
+        double[] denL = {m, c, k};
+        return new TransferFunction(numL, denL);
+    }
 
-        // State-space matrices
-        double[][] A = new double[n][n];
-        double[] B = new double[n];
-        double[] C = new double[n];
-        double D = num[0] / den[0];
+    // No direct feedthrough: deg num < deg den
+    public boolean isStrictlyProper() {
+        return Polynomials.degree(num) < Polynomials.degree(den);
+    }
 
-        // Construct A matrix (companion matrix)
-        for (int i = 0; i < n - 1; i++) {
-            A[i][i + 1] = 1.0;
-        }
-        for (int i = 0; i < n; i++) {
-            A[n - 1][i] = -den[n - i] / den[0];
+    // Steady-state gain H(0); infinite for systems with a pole at the origin
+    public double dcGain() {
+        return num[num.length - 1] / den[den.length - 1];
+    }
+
+    // H(j omega) at each given frequency [rad/s], straight from the polynomials, so any spacing works
+    // (see logFrequencies) and integrators and undamped modes are fine away from their poles.
+    // Returns {omega, magnitude, phase [rad]} like FastConvolution.frequencyResponse.
+    public double[][] frequencyResponse(double[] omega) {
+        double[] mag = new double[omega.length];
+        double[] phase = new double[omega.length];
+        for (int k = 0; k < omega.length; k++) {
+            // Horner in s = j omega for both polynomials
+            double nr = 0.0, ni = 0.0, dr = 0.0, di = 0.0;
+            for (double c : num) {
+                double r = -ni * omega[k] + c;
+                ni = nr * omega[k];
+                nr = r;
+            }
+            for (double c : den) {
+                double r = -di * omega[k] + c;
+                di = dr * omega[k];
+                dr = r;
+            }
+            mag[k] = Math.hypot(nr, ni) / Math.hypot(dr, di);
+            phase[k] = Math.atan2(ni * dr - nr * di, nr * dr + ni * di);
         }
+        return new double[][] {omega.clone(), mag, phase};
+    }
 
-        // Construct B matrix
-        B[n - 1] = 1.0 / den[0];
+    // count frequencies [rad/s] evenly spaced in log from lo to hi, both included
+    public static double[] logFrequencies(double lo, double hi, int count) {
+        if (!(lo > 0 && hi > lo) || count < 2) throw new IllegalArgumentException("Need 0 < lo < hi and at least 2 frequencies");
+        double[] omega = new double[count];
+        double step = Math.log(hi / lo) / (count - 1);
+        for (int k = 0; k < count; k++) omega[k] = lo * Math.exp(k * step);
+        omega[count - 1] = hi;
+        return omega;
+    }
 
-        // Construct C matrix
-        for (int i = 0; i < n; i++) {
-            C[i] = num[n - i] - D * den[n - i];
-        }
+    // Block-diagram algebra. Each result is a single model, so a chain of blocks simulates in one
+    // pass with no intermediate signal buffers.
 
-        // Initialize state vector
-        double[] x = new double[n];
+    // this followed by other: G1 G2
+    public TransferFunction series(TransferFunction other) {
+        return new TransferFunction(Polynomials.multiply(num, other.num), Polynomials.multiply(den, other.den));
+    }
+
+    public static TransferFunction series(TransferFunction... blocks) {
+        TransferFunction result = blocks[0];
+        for (int i = 1; i < blocks.length; i++) result = result.series(blocks[i]);
+        return result;
+    }
 
-        // Initialize output array
-        double[] output = new double[input.length];
+    // Summed outputs of a shared input: G1 + G2
+    public TransferFunction parallel(TransferFunction other) {
+        double[] n = Polynomials.add(Polynomials.multiply(num, other.den), Polynomials.multiply(other.num, den));
+        return new TransferFunction(Polynomials.trim(n), Polynomials.multiply(den, other.den));
+    }
 
-        // Simulate the system using Runge-Kutta 4th order
-        for (int i = 0; i < input.length; i++) {
-            // Compute output at current time step
-            output[i] = 0.0;
-            for (int j = 0; j < n; j++) {
-                output[i] += C[j] * x[j];
-            }
-            output[i] += D * input[i];
+    // Negative feedback through other in the return path: G / (1 + G H)
+    public TransferFunction feedback(TransferFunction other) {
+        double[] n = Polynomials.multiply(num, other.den);
+        double[] d = Polynomials.add(Polynomials.multiply(den, other.den), Polynomials.multiply(num, other.num));
+        return new TransferFunction(Polynomials.trim(n), Polynomials.trim(d));
+    }
 
-            // Runge-Kutta 4th order integration for next time step
-            double[] k1 = computeDerivatives(A, B, x, input[i]);
-            double[] k2 = computeDerivatives(A, B, addVectors(x, scaleVector(k1, dt / 2)), input[i]);
-            double[] k3 = computeDerivatives(A, B, addVectors(x, scaleVector(k2, dt / 2)), input[i]);
-            double[] k4 = computeDerivatives(A, B, addVectors(x, scaleVector(k3, dt)), input[i]);
+    // Unity negative feedback: G / (1 + G)
+    public TransferFunction feedback() {
+        return new TransferFunction(num.clone(), Polynomials.trim(Polynomials.add(den, num)));
+    }
 
-            // Update state
-            for (int j = 0; j < n; j++) {
-                x[j] += (k1[j] + 2 * k2[j] + 2 * k3[j] + k4[j]) * dt / 6;
+    // Cancel pole-zero pairs closer than tol (relative to the root magnitude)
+    public TransferFunction minreal(double tol) {
+        double[] n = Polynomials.trim(num);
+        double[] d = Polynomials.trim(den);
+        double[][] zeros = Polynomials.roots(n);
+        double[][] poles = Polynomials.roots(d);
+        int nz = zeros[0].length, np = poles[0].length;
+        boolean[] zeroGone = new boolean[nz];
+        boolean[] poleGone = new boolean[np];
+        int cancelled = 0;
+        for (int i = 0; i < nz; i++) {
+            for (int j = 0; j < np; j++) {
+                if (poleGone[j]) continue;
+                double dist = Math.hypot(zeros[0][i] - poles[0][j], zeros[1][i] - poles[1][j]);
+                double scale = Math.max(1.0, Math.hypot(poles[0][j], poles[1][j]));
+                if (dist <= tol * scale) {
+                    zeroGone[i] = true;
+                    poleGone[j] = true;
+                    cancelled++;
+                    break;
+                }
             }
         }
+        if (cancelled == 0) return new TransferFunction(n, d);
 
-        return output;
+        return new TransferFunction(Polynomials.scale(remaining(zeros, zeroGone, nz - cancelled), n[0]),
+                                    Polynomials.scale(remaining(poles, poleGone, np - cancelled), d[0]));
     }
 
-    private double[] computeDerivatives(double[][] A, double[] B, double[] x, double u) {
-        int n = x.length;
-        double[] dx = new double[n];
-        for (int i = 0; i < n; i++) {
-            dx[i] = 0.0;
-            for (int j = 0; j < n; j++) {
-                dx[i] += A[i][j] * x[j];
-            }
-            dx[i] += B[i] * u;
+    private static double[] remaining(double[][] roots, boolean[] gone, int count) {
+        double[] re = new double[count];
+        double[] im = new double[count];
+        int k = 0;
+        for (int i = 0; i < gone.length; i++) {
+            if (gone[i]) continue;
+            re[k] = roots[0][i];
+            im[k] = roots[1][i];
+            k++;
         }
-        return dx;
+        return Polynomials.fromRoots(re, im);
     }
 
-    private double[] addVectors(double[] a, double[] b) {
-        double[] result = new double[a.length];
-        for (int i = 0; i < a.length; i++) {
-            result[i] = a[i] + b[i];
-        }
-        return result;
+    public CompiledSimulator compile(double dt) {
+        return new CompiledSimulator(this.num, this.den, dt);
     }
 
-    private double[] scaleVector(double[] a, double scale) {
-        double[] result = new double[a.length];
-        for (int i = 0; i < a.length; i++) {
-            result[i] = a[i] * scale;
+    public Simulator simulator(double dt, Solver solver) {
+        switch (solver) {
+            case RK4:
+                // Not checked here; see stiffnessCheck() or use AUTO
+                return compile(dt);
+            case ZOH:
+            case TUSTIN:
+            case MATCHED:
+                DiscreteSimulator discrete = DiscreteSimulator.discretize(this, dt, solver);
+                // Dense O(n^2) updates lose to second-order sections for large n, unless the roots
+                // do not give accurate sections
+                if (discrete.order() <= BIQUAD_ORDER) return discrete;
+                BiquadCascade biquads = discrete.toBiquadsIfAccurate();
+                return biquads != null ? biquads : discrete;
+            case DORMAND_PRINCE:
+                return new AdaptiveSimulator(this, dt, 1e-6, 1e-9);
+            case TRAPEZOIDAL:
+                return new ImplicitSimulator(this, dt, ImplicitSimulator.Method.TRAPEZOIDAL);
+            case BDF2:
+                return new ImplicitSimulator(this, dt, ImplicitSimulator.Method.BDF2);
+            case AUTO:
+                if (stiffnessCheck().isStiff(dt)) return new ImplicitSimulator(this, dt, ImplicitSimulator.Method.BDF2);
+                return compile(dt);
+            default:
+                throw new IllegalArgumentException("Unknown solver: " + solver);
         }
-        return result;
+    }
+
+    // Whether RK4 is stable for this model at a given dt, and the largest dt for which it is
+    public StiffnessCheck stiffnessCheck() {
+        return new StiffnessCheck(this);
+    }
+
+    public StreamSimulator stream(double dt) {
+        return new StreamSimulator(compile(dt));
+    }
+
+    public StreamSimulator stream(double dt, Solver solver) {
+        return new StreamSimulator(simulator(dt, solver));
+    }
+
+    // Realizations are memoized in RealizationCache, so repeated runs of the same model skip the rebuild
+    public double[] simulate(double[] input, double dt) {
+        if (!Metrics.isEnabled()) return RealizationCache.getDefault().get(this, dt).simulate(input);
+        long start = System.nanoTime();
+        return Metrics.simulate(RealizationCache.getDefault().get(this, dt), input, "RK4", start);
+    }
+
+    // Lazy input: the first samples of input at dt, pulled in blocks without an input array
+    public double[] simulate(Signal input, int samples, double dt) {
+        if (!Metrics.isEnabled()) return RealizationCache.getDefault().get(this, dt).simulate(input, samples);
+        long start = System.nanoTime();
+        return Metrics.simulate(RealizationCache.getDefault().get(this, dt), input, samples, "RK4", start);
+    }
+
+    public double[] simulate(Signal input, int samples, double dt, Solver solver) {
+        if (!Metrics.isEnabled()) return RealizationCache.getDefault().get(this, dt, solver).simulate(input, samples);
+        long start = System.nanoTime();
+        return Metrics.simulate(RealizationCache.getDefault().get(this, dt, solver), input, samples, solver.name(), start);
+    }
+
+    // RK4 output split over the common pool in time segments, matching simulate to rounding; see PararealSimulator
+    public double[] simulateParallel(double[] input, double dt) {
+        return new PararealSimulator(this, dt).simulateScan(input);
+    }
+
+    // RK4 output via FFT convolution with the truncated impulse response when that is cheaper
+    public double[] simulateFast(double[] input, double dt) {
+        return FastConvolution.simulate(this, input, dt, 1e-9);
+    }
+
+    public double[] simulate(double[] input, double dt, Solver solver) {
+        if (!Metrics.isEnabled()) return RealizationCache.getDefault().get(this, dt, solver).simulate(input);
+        long start = System.nanoTime();
+        return Metrics.simulate(RealizationCache.getDefault().get(this, dt, solver), input, solver.name(), start);
+    }
+
+    // Out-of-core: raw little-endian doubles from input to output through mapped windows
+    public long simulate(Path input, Path output, double dt) throws IOException {
+        return new MappedSimulator(compile(dt)).simulate(input, output);
+    }
+
+    public long simulate(Path input, Path output, double dt, Solver solver) throws IOException {
+        return new MappedSimulator(simulator(dt, solver)).simulate(input, output);
     }
 
     public String toString() {
@@ -1,18 +1,28 @@
 public class Utilities {
+    static final int PREVIEW = 10; // Elements printArr shows from each end of a long array
+    static final int MAX_PRESIZE = 1 << 24; // Chars reserved up front; longer strings grow as usual
 
-    public static String arrToString(double[] arr) {
-        String output = "[";
-        if(arr.length == 0) return output;
+    public static String arrToString(double[] arr) { return arrToString(arr, Integer.MAX_VALUE); }
 
+    // At most maxItems elements; longer arrays show the first and last maxItems / 2 around a count
+    // of the omitted ones
+    public static String arrToString(double[] arr, int maxItems) {
+        long estimate = 22L * Math.min(arr.length, maxItems) + 32;
+        StringBuilder output = new StringBuilder((int) Math.min(estimate, MAX_PRESIZE)).append('[');
+        int head = arr.length <= maxItems ? arr.length : maxItems / 2;
+        int tail = arr.length <= maxItems ? 0 : maxItems - head;
 
-        for(int i = 0; i < arr.length; i++) {
-            output += arr[i];
-            if(arr.length > 1 && i != arr.length-1) output += ", ";
+        for(int i = 0; i < head; i++) {
+            if(i > 0) output.append(", ");
+            output.append(arr[i]);
+        }
+        if(tail > 0 || head < arr.length) {
+            output.append(head > 0 ? ", " : "").append("... (").append(arr.length - head - tail).append(" more)");
+            for(int i = arr.length - tail; i < arr.length; i++) output.append(", ").append(arr[i]);
         }
 
-        output += "]";
-        return output;
+        return output.append(']').toString();
     }
 
-    public static void printArr(double[] arr) { System.out.println(arrToString(arr)); }
+    public static void printArr(double[] arr) { System.out.println(arrToString(arr, 2 * PREVIEW)); }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+// SIMD RK4 step for BatchSimulator. Needs --add-modules jdk.incubator.vector to compile and run;
+// BatchSimulator loads it reflectively and falls back to its scalar loop when it is missing.
+// Multiplies and adds are kept separate (no fma) so results match the scalar path.
+class VectorBatchKernel implements BatchSimulator.Kernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private final BatchSimulator sim;
+
+    VectorBatchKernel(BatchSimulator sim) {
+        this.sim = sim;
+    }
+
+    @Override
+    public void step(double u, double[] y) {
+        int n = sim.n;
+        int N = sim.count;
+        double dt = sim.dt;
+        double[] x = sim.x;
+
+        // y = C x + D u
+        int bound = SPECIES.loopBound(N);
+        int s = 0;
+        for (; s < bound; s += SPECIES.length()) {
+            DoubleVector acc = DoubleVector.zero(SPECIES);
+            for (int j = 0; j < n; j++) {
+                int row = j * N + s;
+                acc = acc.add(DoubleVector.fromArray(SPECIES, sim.c, row).mul(DoubleVector.fromArray(SPECIES, x, row)));
+            }
+            acc.add(DoubleVector.fromArray(SPECIES, sim.d, s).mul(u)).intoArray(y, s);
+        }
+        for (; s < N; s++) {
+            double acc = 0.0;
+            for (int j = 0; j < n; j++) acc += sim.c[j * N + s] * x[j * N + s];
+            y[s] = acc + sim.d[s] * u;
+        }
+
+        if (n == 0) return;
+
+        double h = dt / 2;
+        derivatives(x, u, sim.k1);
+        axpy(x, sim.k1, h, sim.tmp);
+        derivatives(sim.tmp, u, sim.k2);
+        axpy(x, sim.k2, h, sim.tmp);
+        derivatives(sim.tmp, u, sim.k3);
+        axpy(x, sim.k3, dt, sim.tmp);
+        derivatives(sim.tmp, u, sim.k4);
+
+        double[] k1 = sim.k1, k2 = sim.k2, k3 = sim.k3, k4 = sim.k4;
+        int len = x.length;
+        int lenBound = SPECIES.loopBound(len);
+        int i = 0;
+        for (; i < lenBound; i += SPECIES.length()) {
+            DoubleVector v1 = DoubleVector.fromArray(SPECIES, k1, i);
+            DoubleVector v2 = DoubleVector.fromArray(SPECIES, k2, i).mul(2);
+            DoubleVector v3 = DoubleVector.fromArray(SPECIES, k3, i).mul(2);
+            DoubleVector v4 = DoubleVector.fromArray(SPECIES, k4, i);
+            DoubleVector inc = v1.add(v2).add(v3).add(v4).mul(dt).div(6);
+            DoubleVector.fromArray(SPECIES, x, i).add(inc).intoArray(x, i);
+        }
+        for (; i < len; i++) {
+            x[i] += (k1[i] + 2 * k2[i] + 2 * k3[i] + k4[i]) * dt / 6;
+        }
+    }
+
+    // out = x + k * h
+    private static void axpy(double[] x, double[] k, double h, double[] out) {
+        int len = x.length;
+        int bound = SPECIES.loopBound(len);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, x, i).add(DoubleVector.fromArray(SPECIES, k, i).mul(h)).intoArray(out, i);
+        }
+        for (; i < len; i++) out[i] = x[i] + k[i] * h;
+    }
+
+    private void derivatives(double[] xs, double u, double[] dx) {
+        int n = sim.n;
+        int N = sim.count;
+        int last = (n - 1) * N;
+        System.arraycopy(xs, N, dx, 0, last);
+
+        int bound = SPECIES.loopBound(N);
+        int s = 0;
+        for (; s < bound; s += SPECIES.length()) {
+            DoubleVector acc = DoubleVector.zero(SPECIES);
+            for (int j = 0; j < n; j++) {
+                int row = j * N + s;
+                acc = acc.add(DoubleVector.fromArray(SPECIES, sim.a, row).mul(DoubleVector.fromArray(SPECIES, xs, row)));
+            }
+            acc.add(DoubleVector.fromArray(SPECIES, sim.b, s).mul(u)).intoArray(dx, last + s);
+        }
+        for (; s < N; s++) {
+            double acc = 0.0;
+            for (int j = 0; j < n; j++) acc += sim.a[j * N + s] * xs[j * N + s];
+            dx[last + s] = acc + sim.b[s] * u;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+// Immutable data-to-pixel transform for one frame of a Plot. Built once per repaint or mouse
+// event and shared by the grid, axes, data and interaction code.
+public class Viewport {
+    private final double xMin, xMax, yMin, yMax; // Visible data range
+    private final int width, height, padding; // [px]
+    private final double xScale, yScale; // [px per data unit]
+
+    public Viewport(double xMin, double xMax, double yMin, double yMax, int width, int height, int padding) {
+        this.xMin = xMin;
+        this.xMax = xMax;
+        this.yMin = yMin;
+        this.yMax = yMax;
+        this.width = width;
+        this.height = height;
+        this.padding = padding;
+        this.xScale = (width - 2 * padding) / (xMax - xMin);
+        this.yScale = (height - 2 * padding) / (yMax - yMin);
+    }
+
+    // Visible range for data bounds, zoomed about their center and panned by the offsets
+    public static Viewport of(double xMin, double xMax, double yMin, double yMax, double zoomFactor,
+                              double xOffset, double yOffset, int width, int height, int padding) {
+        // Empty plot or constant data: avoid a zero-width range
+        if (!(xMin <= xMax)) {
+            xMin = 0;
+            xMax = 1;
+        }
+        if (!(yMin <= yMax)) {
+            yMin = 0;
+            yMax = 1;
+        }
+        if (xMin == xMax) {
+            xMin -= 1;
+            xMax += 1;
+        }
+        if (yMin == yMax) {
+            yMin -= 1;
+            yMax += 1;
+        }
+
+        double xRange = (xMax - xMin) * zoomFactor;
+        double yRange = (yMax - yMin) * zoomFactor;
+        double xCenter = (xMin + xMax) / 2 + xOffset;
+        double yCenter = (yMin + yMax) / 2 + yOffset;
+        return new Viewport(xCenter - xRange / 2, xCenter + xRange / 2, yCenter - yRange / 2, yCenter + yRange / 2,
+                            width, height, padding);
+    }
+
+    public double toPixelX(double x) { return padding + (x - xMin) * xScale; }
+    public double toPixelY(double y) { return height - padding - (y - yMin) * yScale; }
+    public double toDataX(double px) { return xMin + (px - padding) / xScale; }
+    public double toDataY(double py) { return yMin + (height - padding - py) / yScale; }
+
+    // Same transform, so an image rendered for one is valid for the other
+    public boolean sameAs(Viewport o) {
+        return o != null && xMin == o.xMin && xMax == o.xMax && yMin == o.yMin && yMax == o.yMax
+                && width == o.width && height == o.height && padding == o.padding;
+    }
+
+    public double getXMin() { return this.xMin; }
+    public double getXMax() { return this.xMax; }
+    public double getYMin() { return this.yMin; }
+    public double getYMax() { return this.yMax; }
+    public double getXRange() { return this.xMax - this.xMin; }
+    public double getYRange() { return this.yMax - this.yMin; }
+    public double getXScale() { return this.xScale; }
+    public double getYScale() { return this.yScale; }
+    public int getWidth() { return this.width; }
+    public int getHeight() { return this.height; }
+    public int getPadding() { return this.padding; }
+}
@@ -0,0 +1,88 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.util.function.Consumer;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.UnaryOperator;
+
+import benchmarks.Library;
+
+// Library entry points for the JMH benchmarks. JMH rejects benchmark classes in the unnamed
+// package and named packages cannot import from it, so the benchmarks see the library only
+// through the benchmarks.Library interface this class implements.
+public final class BenchmarkTargets implements Library {
+
+    // Unit DC gain system of the given order: damped 2nd order sections with natural frequencies
+    // spread over 1..5 rad/s, plus a first order pole for odd orders
+    public static TransferFunction testSystem(int order) {
+        double[] den = {1};
+        int sections = order / 2;
+        for (int i = 0; i < sections; i++) {
+            double wn = 1 + 4.0 * i / Math.max(1, sections - 1);
+            den = Polynomials.multiply(den, new double[]{1, 2 * 0.3 * wn, wn * wn});
+        }
+        if (order % 2 == 1) den = Polynomials.multiply(den, new double[]{1, 3});
+        return new TransferFunction(new double[]{den[den.length - 1]}, den);
+    }
+
+    // engine: "rk4" (TransferFunction.simulate), "fft" (overlap-add FFT convolution, always; the
+    // impulse response is computed here, outside the measured call) or a Solver name
+    static UnaryOperator<double[]> simulate(TransferFunction tf, double dt, String engine) {
+        switch (engine.toLowerCase()) {
+            case "rk4":
+                return input -> tf.simulate(input, dt);
+            case "fft":
+                // Not simulateFast: its cost model picks plain RK4 for every order benchmarked here
+                FastConvolution convolution = FastConvolution.fromTransferFunction(tf, dt, 1e-9, 1 << 22);
+                return convolution::simulate;
+            default:
+                Solver solver = solver(engine);
+                return input -> tf.simulate(input, dt, solver);
+        }
+    }
+
+    @Override
+    public UnaryOperator<double[]> simulate(int order, double dt, String engine) {
+        return simulate(testSystem(order), dt, engine);
+    }
+
+    private static Solver solver(String engine) {
+        switch (engine.toLowerCase()) {
+            case "dopri": return Solver.DORMAND_PRINCE;
+            case "trap": return Solver.TRAPEZOIDAL;
+            default: return Solver.valueOf(engine.toUpperCase());
+        }
+    }
+
+    // Fixed blocks, so signal length is not limited by the heap
+    @Override
+    public LongToDoubleFunction stream(int order, double dt, String engine, int blockSize) {
+        TransferFunction tf = testSystem(order);
+        double[] in = new double[blockSize];
+        double[] out = new double[blockSize];
+        return n -> {
+            StreamSimulator stream = engine.equalsIgnoreCase("rk4") ? tf.stream(dt) : tf.stream(dt, solver(engine));
+            for (long done = 0; done < n; done += blockSize) {
+                int len = (int) Math.min(blockSize, n - done);
+                for (int i = 0; i < len; i++) in[i] = Math.sin(1e-3 * (done + i));
+                stream.process(in, 0, out, 0, len);
+            }
+            return out[(int) ((n - 1) % blockSize)];
+        };
+    }
+
+    // "paint" draws the cached data layer above the background threshold
+    @Override
+    public Consumer<Graphics2D> paint(int points, int width, int height, String mode) {
+        double[] t = new double[points];
+        double[] y = new double[points];
+        for (int i = 0; i < points; i++) {
+            t[i] = i * 1e-3;
+            y[i] = Math.sin(t[i]) * Math.exp(-1e-2 * t[i]) + 0.05 * Math.sin(97 * t[i]);
+        }
+        Plot plot = new Plot();
+        plot.add(t, y, new Color(20, 180, 100), "y");
+        plot.setSize(width, height);
+        if (mode.equalsIgnoreCase("render")) return g -> plot.render(new Graphics2DCanvas(g), width, height);
+        return plot::paint;
+    }
+}
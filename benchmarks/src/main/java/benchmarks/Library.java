@@ -0,0 +1,20 @@
+package benchmarks;
+
+import java.awt.Graphics2D;
+import java.util.function.Consumer;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.UnaryOperator;
+
+// What the benchmarks measure, as JDK functional types. Implemented by BenchmarkTargets in the
+// unnamed package next to the library, which named packages cannot import, and found through
+// ServiceLoader (META-INF/services/benchmarks.Library).
+public interface Library {
+    // engine: "rk4", "fft" or a Solver name ("dopri" and "trap" are short for DORMAND_PRINCE and TRAPEZOIDAL)
+    UnaryOperator<double[]> simulate(int order, double dt, String engine);
+
+    // Streams n samples of a generated input in blocks; returns the last output sample
+    LongToDoubleFunction stream(int order, double dt, String engine, int blockSize);
+
+    // mode "paint" (Plot.paint as Swing calls it) or "render" (the synchronous export draw)
+    Consumer<Graphics2D> paint(int points, int width, int height, String mode);
+}
@@ -0,0 +1,59 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Plot drawing into an offscreen image at several dataset sizes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx4g"})
+public class PlotBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int points;
+
+    @Param({"paint", "render"})
+    public String mode;
+
+    private BufferedImage image;
+    private Graphics2D g2;
+    private Consumer<Graphics2D> paint;
+
+    @Setup
+    public void setup() {
+        image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        g2 = image.createGraphics();
+        paint = Targets.LIBRARY.paint(points, 800, 600, mode);
+    }
+
+    @TearDown
+    public void tearDown() {
+        g2.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        g2.setColor(Color.WHITE);
+        g2.fillRect(0, 0, 800, 600);
+        paint.accept(g2);
+        return image;
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+// TransferFunction.simulate on in-memory arrays across orders, lengths and engines
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Xmx4g"})
+public class SimulateBenchmark {
+    @Param({"1", "2", "4", "8", "20"})
+    public int order;
+
+    @Param({"1000", "100000", "10000000", "100000000"})
+    public int length;
+
+    @Param({"rk4", "zoh", "tustin", "bdf2", "dopri", "fft"})
+    public String engine;
+
+    private double[] input;
+    private UnaryOperator<double[]> simulate;
+
+    @Setup
+    public void setup() {
+        input = new double[length];
+        for (int i = 0; i < length; i++) input[i] = Math.sin(1e-3 * i) + (i % 1000 == 0 ? 1 : 0);
+        simulate = Targets.LIBRARY.simulate(order, 0.01, engine);
+    }
+
+    @Benchmark
+    public double[] simulate() {
+        return simulate.apply(input);
+    }
+}
@@ -0,0 +1,46 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongToDoubleFunction;
+
+// Signals too long for one array (up to 1e8 samples) streamed through StreamSimulator in blocks
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector"})
+public class StreamBenchmark {
+    @Param({"1", "4", "20"})
+    public int order;
+
+    @Param({"10000000", "100000000"})
+    public long length;
+
+    @Param({"rk4", "zoh"})
+    public String engine;
+
+    private LongToDoubleFunction stream;
+
+    @Setup
+    public void setup() {
+        stream = Targets.LIBRARY.stream(order, 0.01, engine, 4096);
+    }
+
+    @Benchmark
+    public double stream() {
+        return stream.applyAsDouble(length);
+    }
+}
@@ -0,0 +1,11 @@
+package benchmarks;
+
+import java.util.ServiceLoader;
+
+// The library entry points, looked up once per JVM. Only setup code goes through here.
+final class Targets {
+    static final Library LIBRARY = ServiceLoader.load(Library.class).findFirst()
+            .orElseThrow(() -> new IllegalStateException("No benchmarks.Library on the class path"));
+
+    private Targets() {}
+}
@@ -0,0 +1,102 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+// The FFT engine convolves with a truncated copy of the RK4 impulse response, so it must match the
+// recursion up to what the truncation drops. Bode evaluation is checked against closed forms.
+class FastConvolutionTest {
+    private static final double DT = 1e-3;
+    private static final double THRESHOLD = 1e-9;
+
+    private static TransferFunction[] systems() {
+        return new TransferFunction[] {
+            TransferFunction.massSpringDamper(1, 0.4, 4),
+            TransferFunction.series(TransferFunction.lowPassFilter(10), TransferFunction.lowPassFilter(3), TransferFunction.massSpringDamper(1, 0.2, 25)),
+            TransferFunction.highPassFilter(2) // Direct feedthrough, h[0] = 1
+        };
+    }
+
+    @Test
+    void fftEngineMatchesRecursionWithinTruncation() {
+        int n = 300001; // Not a multiple of any FFT block
+        double[] u = new double[n];
+        for (int k = 0; k < n; k++) u[k] = (k % 7000 < 3500 ? 1.0 : -0.5) + 0.3 * Math.sin(0.01 * k);
+        double uMax = 1.3;
+
+        TransferFunction[] systems = systems();
+        for (int s = 0; s < systems.length; s++) {
+            TransferFunction tf = systems[s];
+            double[] h = FastConvolution.impulseResponse(tf.compile(DT), THRESHOLD, 1 << 22);
+            double[] full = FastConvolution.impulseResponse(tf.compile(DT), 1e-16, 1 << 22);
+            assertTrue(h.length < full.length, "system " + s + " truncated");
+            double dropped = 0.0, total = 0.0;
+            for (int k = 0; k < full.length; k++) {
+                if (k >= h.length) dropped += Math.abs(full[k]);
+                total += Math.abs(full[k]);
+            }
+            double tol = uMax * (dropped + 1e-12 * total);
+
+            double[] expected = tf.compile(DT).simulate(u);
+            double[] fft = new FastConvolution(h).simulate(u);
+            double[] auto = FastConvolution.simulate(tf, u, DT, THRESHOLD);
+            for (int k = 0; k < n; k++) {
+                assertEquals(expected[k], fft[k], tol, "system " + s + " sample " + k);
+                assertEquals(expected[k], auto[k], tol, "system " + s + " auto engine sample " + k);
+            }
+        }
+    }
+
+    @Test
+    void bodeMatchesClosedForms() {
+        double[] omega = TransferFunction.logFrequencies(0.01, 1000, 201);
+        assertEquals(0.01, omega[0], 0.0);
+        assertEquals(1000, omega[200], 0.0);
+        assertEquals(1.0, omega[80], 1e-12);
+
+        double[][] lowPass = TransferFunction.lowPassFilter(10).frequencyResponse(omega);
+        double[][] integrator = new TransferFunction(new double[] {2}, new double[] {1, 0}).frequencyResponse(omega);
+        double[][] undamped = TransferFunction.massSpringDamper(1, 0, 4).frequencyResponse(omega);
+        for (int k = 0; k < omega.length; k++) {
+            double w = omega[k];
+            assertEquals(w, lowPass[0][k], 0.0);
+            assertEquals(1 / Math.hypot(1, w / 10), lowPass[1][k], 1e-12, "low pass magnitude at " + w);
+            assertEquals(-Math.atan(w / 10), lowPass[2][k], 1e-12, "low pass phase at " + w);
+            assertEquals(2 / w, integrator[1][k], 1e-12 * 2 / w, "integrator magnitude at " + w);
+            assertEquals(-Math.PI / 2, integrator[2][k], 1e-12, "integrator phase at " + w);
+            assertEquals(1 / Math.abs(4 - w * w), undamped[1][k], 1e-9 / Math.abs(4 - w * w), "undamped magnitude at " + w);
+            assertEquals(w < 2 ? 0.0 : Math.PI, Math.abs(undamped[2][k]), 1e-12, "undamped phase at " + w);
+        }
+    }
+
+    @Test
+    void fftResponseMatchesBodeBelowNyquist() {
+        for (TransferFunction tf : systems()) {
+            double[][] sampled = FastConvolution.frequencyResponse(tf, DT, 1 << 16, THRESHOLD);
+            double[] omega = new double[200];
+            System.arraycopy(sampled[0], 1, omega, 0, omega.length);
+            double[][] exact = tf.frequencyResponse(omega);
+            double peak = 0.0;
+            for (double m : tf.frequencyResponse(TransferFunction.logFrequencies(1e-3, 1e3, 2001))[1]) peak = Math.max(peak, m);
+            for (int k = 0; k < omega.length; k++) {
+                // Holding the input for a sample acts as a delay of up to half a sample
+                double re = sampled[1][k + 1] * Math.cos(sampled[2][k + 1]) - exact[1][k] * Math.cos(exact[2][k]);
+                double im = sampled[1][k + 1] * Math.sin(sampled[2][k + 1]) - exact[1][k] * Math.sin(exact[2][k]);
+                assertEquals(0.0, Math.hypot(re, im), omega[k] * DT / 2 * peak + 1e-9, tf + " at " + omega[k]);
+            }
+        }
+    }
+
+    @Test
+    void fftResponseRejectsSystemsThatDoNotDecay() {
+        TransferFunction[] systems = {
+            new TransferFunction(new double[] {1}, new double[] {1, 0}),
+            TransferFunction.massSpringDamper(1, 0, 1),
+            TransferFunction.lowPassFilter(-1)
+        };
+        for (TransferFunction tf : systems) {
+            assertThrows(IllegalArgumentException.class, () -> FastConvolution.frequencyResponse(tf, DT, 1024, THRESHOLD), tf.toString());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+// Both time-parallel paths must reproduce the serial RK4 run, including a ragged last segment
+class PararealTest {
+    private static final double DT = 1e-3;
+
+    private static TransferFunction[] systems() {
+        return new TransferFunction[] {
+            TransferFunction.massSpringDamper(1, 0.4, 4),
+            TransferFunction.series(TransferFunction.lowPassFilter(10), TransferFunction.lowPassFilter(3), TransferFunction.massSpringDamper(1, 0.2, 25),
+                                    TransferFunction.massSpringDamper(1, 1, 9))
+        };
+    }
+
+    private static double[] input(int n) {
+        double[] u = new double[n];
+        for (int k = 0; k < n; k++) u[k] = (k % 9000 < 4000 ? 1.0 : -0.5) + 0.3 * Math.sin(0.013 * k);
+        return u;
+    }
+
+    private static void check(String name, double[] expected, double[] actual, double tol) {
+        assertEquals(expected.length, actual.length, name + " length");
+        double scale = 0.0;
+        for (double y : expected) scale = Math.max(scale, Math.abs(y));
+        for (int k = 0; k < expected.length; k++) assertEquals(expected[k], actual[k], tol * scale, name + " sample " + k);
+    }
+
+    @Test
+    void parallelRunsMatchSerialRk4() {
+        TransferFunction[] systems = systems();
+        for (int s = 0; s < systems.length; s++) {
+            TransferFunction tf = systems[s];
+            // 8 segments of a multiple of the coarse ratio, the last one short; then a single segment
+            for (int n : new int[] {100003, 65536, 3000}) {
+                double[] u = input(n);
+                double[] expected = tf.compile(DT).simulate(u);
+                String name = "order " + (s == 0 ? 2 : 6) + " length " + n;
+
+                PararealSimulator parallel = new PararealSimulator(tf, DT);
+                parallel.setSegments(8);
+                check(name + " parareal", expected, parallel.simulate(u), 1e-10);
+                assertTrue(parallel.getIterations() <= 8, name + " parareal took " + parallel.getIterations() + " sweeps");
+                check(name + " scan", expected, parallel.simulateScan(u), 1e-12);
+
+                parallel.setCoarseRatio(1);
+                check(name + " parareal, coarse ratio 1", expected, parallel.simulate(u), 1e-10);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+// Repeated real poles come back from the root finder as a cluster with small, unpaired imaginary
+// parts. Discretized models above the biquad threshold must still build and match the dense form.
+class RepeatedPolesTest {
+    private static TransferFunction cascade(int count) {
+        TransferFunction tf = TransferFunction.lowPassFilter(10);
+        for (int i = 1; i < count; i++) tf = tf.series(TransferFunction.lowPassFilter(10));
+        return tf;
+    }
+
+    @Test
+    void repeatedPolesSimulateWithEveryDiscretization() {
+        double[] u = new double[2000];
+        Arrays.fill(u, 1.0);
+        for (int order = 5; order <= 8; order++) {
+            TransferFunction tf = cascade(order);
+            for (Solver solver : new Solver[] {Solver.ZOH, Solver.TUSTIN, Solver.MATCHED}) {
+                double[] y = tf.simulate(u, 0.01, solver);
+                double[] dense = DiscreteSimulator.discretize(tf, 0.01, solver).simulate(u);
+                for (int k = 0; k < u.length; k++) {
+                    assertEquals(dense[k], y[k], 1e-6, solver + " order " + order + " sample " + k);
+                }
+                assertEquals(1.0, y[u.length - 1], 1e-6, solver + " order " + order + " DC gain");
+            }
+        }
+    }
+
+    @Test
+    void clusteredRootsComeBackConjugateSymmetric() {
+        double[][] roots = Polynomials.roots(cascade(8).getDen());
+        double[] re = roots[0], im = roots[1];
+        for (int k = 0; k < re.length; k++) {
+            if (im[k] == 0) continue;
+            boolean mated = false;
+            for (int j = 0; j < re.length; j++) {
+                if (re[j] == re[k] && im[j] == -im[k]) mated = true;
+            }
+            assertTrue(mated, "root " + re[k] + " + " + im[k] + "i has no exact conjugate");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Results files written by BinaryResultsWriter and CsvWriter must read back exactly what went in
+class ResultsFileTest {
+    @TempDir
+    Path dir;
+
+    private static double[][] channels(int width, int n) {
+        double[][] data = new double[width][n];
+        for (int c = 0; c < width; c++) {
+            for (int k = 0; k < n; k++) data[c][k] = Math.sin(0.37 * k + c) * Math.pow(10, c % 7 - 3);
+        }
+        return data;
+    }
+
+    @Test
+    void binaryRoundTripKeepsHeaderAndSamples() throws IOException {
+        String[] names = {"t", "y", "déplacement [m]"};
+        double[][] data = channels(names.length, 100000); // Several read buffers, rows split across them
+        data[1][5] = Double.NaN;
+        data[1][6] = -0.0;
+        data[2][7] = Double.NEGATIVE_INFINITY;
+
+        Path columns = dir.resolve("columns.tfr");
+        try (BinaryResultsWriter writer = new BinaryResultsWriter(columns, 1e-3, names)) {
+            writer.writeColumns(data);
+        }
+        Path samples = dir.resolve("samples.tfr");
+        try (BinaryResultsWriter writer = new BinaryResultsWriter(samples, 1e-3, names)) {
+            for (int k = 0; k < data[0].length; k++) writer.writeSample(data[0][k], data[1][k], data[2][k]);
+        }
+
+        for (Path file : new Path[] {columns, samples}) {
+            BinaryResults header = BinaryResults.readHeader(file);
+            assertEquals(1e-3, header.getDt(), 0.0, file + " dt");
+            assertEquals(data[0].length, header.getSampleCount(), file + " sample count");
+            assertArrayEquals(names, header.getNames(), file + " names");
+            assertEquals(0, header.getDataOffset() % 8, file + " data alignment");
+
+            BinaryResults results = BinaryResults.read(file);
+            for (int c = 0; c < names.length; c++) assertArrayEquals(data[c], results.getChannel(c), 0.0, file + " channel " + c);
+            assertArrayEquals(data[2], results.getChannel(names[2]), 0.0, file + " channel by name");
+        }
+    }
+
+    @Test
+    void binaryRoundTripWiderThanOneBuffer() throws IOException {
+        int width = (BinaryResults.BUFFER_SIZE >> 3) + 3; // One sample no longer fits a buffer
+        String[] names = new String[width];
+        for (int c = 0; c < width; c++) names[c] = "x" + c;
+        double[][] data = channels(width, 3);
+
+        Path file = dir.resolve("wide.tfr");
+        try (BinaryResultsWriter writer = new BinaryResultsWriter(file, 0.5, names)) {
+            writer.writeColumns(data);
+            double[] row = new double[width];
+            for (int c = 0; c < width; c++) row[c] = -c;
+            writer.writeSample(row);
+        }
+
+        BinaryResults results = BinaryResults.read(file);
+        assertEquals(4, results.getSampleCount());
+        for (int c = 0; c < width; c++) {
+            double[] channel = results.getChannel(c);
+            for (int k = 0; k < 3; k++) assertEquals(data[c][k], channel[k], 0.0, "channel " + c + " sample " + k);
+            assertEquals(-c, channel[3], 0.0, "channel " + c + " written by sample");
+        }
+    }
+
+    private static String csv(int precision, double... values) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvWriter writer = new CsvWriter(out)) {
+            writer.setPrecision(precision);
+            writer.writeRow(values);
+        }
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void csvFormatsNumbers() throws IOException {
+        assertEquals("0,-0,NaN,Infinity,-Infinity\n", csv(15, 0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY));
+        assertEquals("1.5,-100,0.1,0.333333333333333,123456789012345\n", csv(15, 1.5, -100, 0.1, 1.0 / 3, 123456789012345.0));
+        assertEquals("0.0001,1.234E-5,1E15,-2.5E-300,1.79769313486232E308\n", csv(15, 1e-4, 1.234e-5, 1e15, -2.5e-300, Double.MAX_VALUE));
+        assertEquals("100000,1E15,0.3333\n", csv(15, 99999.99999999999, 9.9999999999999999e14, 0.33330000000000001)); // Rounding carries
+        assertEquals("3.14,1E-7,1000\n", csv(3, Math.PI, 0.99999e-7, 999.9));
+    }
+
+    @Test
+    void csvRoundTripsAtFullPrecision() throws IOException {
+        double[][] data = channels(7, 2000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvWriter writer = new CsvWriter(out)) {
+            writer.setPrecision(17);
+            writer.writeHeader("plain", "a,b", "say \"hi\"", "4", "5", "6", "7");
+            writer.writeColumns(data);
+        }
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("plain,\"a,b\",\"say \"\"hi\"\"\",4,5,6,7", lines[0]);
+        assertEquals(data[0].length + 1, lines.length);
+        for (int k = 0; k < data[0].length; k++) {
+            String[] fields = lines[k + 1].split(",");
+            for (int c = 0; c < data.length; c++) assertEquals(data[c][k], Double.parseDouble(fields[c]), 0.0, "row " + k + " column " + c);
+        }
+    }
+
+    @Test
+    void csvWritesFilesThroughPath() throws IOException {
+        Path file = dir.resolve("out.csv");
+        try (CsvWriter writer = new CsvWriter(file)) {
+            writer.writeHeader("t", "y");
+            writer.writeColumns(new double[] {0, 0.5}, new double[] {1, -2});
+        }
+        assertEquals("t,y\n0,1\n0.5,-2\n", Files.readString(file));
+    }
+}
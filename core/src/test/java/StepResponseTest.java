@@ -0,0 +1,82 @@
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+import org.junit.jupiter.api.Test;
+
+// Unit step responses of wn^2 / (s^2 + 2 zeta wn s + wn^2) from every simulation engine against
+// the analytic underdamped response
+//   y(t) = 1 - e^(-zeta wn t) / sqrt(1 - zeta^2) sin(wd t + acos zeta),  wd = wn sqrt(1 - zeta^2)
+// so a faster engine cannot drift without failing the build.
+class StepResponseTest {
+    private static final double DT = 0.01; // [s]
+    private static final int SAMPLES = 2000;
+    private static final double[][] SYSTEMS = {{2.0, 0.3}, {5.0, 0.05}, {1.0, 0.7}}; // {wn [rad/s], zeta}
+
+    private static UnaryOperator<double[]> engine(TransferFunction tf, String engine) {
+        switch (engine) {
+            case "rk4":
+                return input -> tf.simulate(input, DT);
+            case "fft":
+                FastConvolution convolution = FastConvolution.fromTransferFunction(tf, DT, 1e-9, 1 << 22);
+                return convolution::simulate;
+            case "zoh":
+                return input -> tf.simulate(input, DT, Solver.ZOH);
+            case "tustin":
+                return input -> tf.simulate(input, DT, Solver.TUSTIN);
+            case "bdf2":
+                return input -> tf.simulate(input, DT, Solver.BDF2);
+            case "dopri":
+                return input -> tf.simulate(input, DT, Solver.DORMAND_PRINCE);
+            default:
+                throw new IllegalArgumentException(engine);
+        }
+    }
+
+    private static double stepError(String engine, double wn, double zeta) {
+        TransferFunction tf = new TransferFunction(new double[] {wn * wn}, new double[] {1, 2 * zeta * wn, wn * wn});
+        double[] step = new double[SAMPLES];
+        Arrays.fill(step, 1.0);
+        double[] y = engine(tf, engine).apply(step);
+
+        double wd = wn * Math.sqrt(1 - zeta * zeta);
+        double phi = Math.acos(zeta);
+        double error = 0.0;
+        for (int k = 0; k < SAMPLES; k++) {
+            double t = k * DT;
+            double exact = 1 - Math.exp(-zeta * wn * t) / Math.sqrt(1 - zeta * zeta) * Math.sin(wd * t + phi);
+            error = Math.max(error, Math.abs(y[k] - exact));
+        }
+        return error;
+    }
+
+    // Tolerances per system in SYSTEMS order, a few times the measured errors
+    private static void check(String engine, double... tolerances) {
+        for (int i = 0; i < SYSTEMS.length; i++) {
+            double wn = SYSTEMS[i][0], zeta = SYSTEMS[i][1];
+            double error = stepError(engine, wn, zeta);
+            assertTrue(error <= tolerances[i], engine + " wn = " + wn + " zeta = " + zeta + ": error " + error + " exceeds " + tolerances[i]);
+        }
+    }
+
+    @Test
+    void rk4() { check("rk4", 1e-8, 2e-6, 5e-10); }
+
+    @Test
+    void zohIsExactForAHeldStep() { check("zoh", 1e-12, 1e-12, 1e-12); }
+
+    // Treats the step as a ramp over the first sample
+    @Test
+    void tustin() { check("tustin", 2e-2, 5e-2, 5e-3); }
+
+    @Test
+    void bdf2() { check("bdf2", 1e-3, 2e-2, 1e-4); }
+
+    // Bounded by the default rtol of 1e-6 rather than by dt
+    @Test
+    void dormandPrince() { check("dopri", 1e-6, 1e-5, 1e-6); }
+
+    // Convolution with the RK4 impulse response, truncated at 1e-9 of its peak
+    @Test
+    void fft() { check("fft", 1e-8, 2e-6, 5e-10); }
+}